@@ -0,0 +1,113 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.CartLines;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Deterministic catalog, promotions and cart for one benchmark trial. The catalog holds twice as
+ * many products as the cart has lines, so about half of the product-targeted promotions miss.
+ */
+final class BenchmarkCatalog {
+
+    static final long SEED = 42L;
+
+    final List<Product> products;
+    final List<Promotion> promotions;
+    final Map<String, Product> cartProducts;
+    final Map<String, Integer> cartItems;
+    final CartLines cart;
+
+    private BenchmarkCatalog(List<Product> products, List<Promotion> promotions,
+                             Map<String, Product> cartProducts, Map<String, Integer> cartItems) {
+        this.products = products;
+        this.promotions = promotions;
+        this.cartProducts = cartProducts;
+        this.cartItems = cartItems;
+        this.cart = CartLines.of(cartProducts, cartItems);
+    }
+
+    static BenchmarkCatalog generate(int cartSize, int promotionCount, CategoryMix categoryMix) {
+        Random random = new Random(SEED);
+
+        List<Product> products = new ArrayList<>(cartSize * 2);
+        for (int i = 0; i < cartSize * 2; i++) {
+            Product product = new Product();
+            product.setId(new UUID(SEED, i));
+            product.setName("Product " + i);
+            product.setCategory(categoryMix.pick(random));
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            product.setStock(1_000_000);
+            product.setVersion(0L);
+            products.add(product);
+        }
+
+        Map<String, Product> cartProducts = new HashMap<>(cartSize * 2);
+        Map<String, Integer> cartItems = new HashMap<>(cartSize * 2);
+        for (int i = 0; i < cartSize; i++) {
+            Product product = products.get(i);
+            cartProducts.put(product.getId().toString(), product);
+            cartItems.put(product.getId().toString(), 1 + random.nextInt(6));
+        }
+
+        List<Promotion> promotions = new ArrayList<>(promotionCount);
+        for (int i = 0; i < promotionCount; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setId(new UUID(SEED + 1, i));
+            promotion.setName("Promotion " + i);
+            promotion.setPriority(random.nextInt(10));
+            if (i % 2 == 0) {
+                promotion.setType(PromotionType.BUY_X_GET_Y);
+                promotion.setProductId(products.get(random.nextInt(products.size())).getId());
+                promotion.setBuyQuantity(1 + random.nextInt(3));
+                promotion.setGetQuantity(1);
+            } else {
+                promotion.setType(PromotionType.PERCENT_OFF_CATEGORY);
+                promotion.setCategory(categoryMix.pick(random).name());
+                promotion.setDiscountPercent(BigDecimal.valueOf(5 + random.nextInt(26)));
+            }
+            promotions.add(promotion);
+        }
+        return new BenchmarkCatalog(products, promotions, cartProducts, cartItems);
+    }
+
+    /**
+     * The same cart with every price widened to scale 3: equal values, but the strategies can no
+     * longer hold them in minor units and take the BigDecimal path.
+     */
+    CartLines decimalCart() {
+        Map<String, Product> decimalProducts = new HashMap<>(cartProducts.size() * 2);
+        cartProducts.forEach((productId, product) -> {
+            Product copy = new Product();
+            copy.setId(product.getId());
+            copy.setName(product.getName());
+            copy.setCategory(product.getCategory());
+            copy.setPrice(product.getPrice().setScale(3));
+            copy.setStock(product.getStock());
+            copy.setVersion(product.getVersion());
+            decimalProducts.put(productId, copy);
+        });
+        return CartLines.of(decimalProducts, cartItems);
+    }
+
+    CartRequest cartRequest() {
+        List<CartItemRequest> items = new ArrayList<>(cartItems.size());
+        cartItems.forEach((productId, quantity) -> {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(productId);
+            item.setQty(quantity);
+            items.add(item);
+        });
+        CartRequest request = new CartRequest();
+        request.setItems(items);
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        return request;
+    }
+}
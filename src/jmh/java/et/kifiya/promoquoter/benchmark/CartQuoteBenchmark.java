@@ -0,0 +1,71 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.service.ProductService;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link CartService#calculateQuote} with in-memory repositories. With the quote cache
+ * disabled every invocation prices the cart; enabled, repeated carts measure the cache hit path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartQuoteBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int cartSize;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int promotionCount;
+
+    @Param({"SINGLE", "UNIFORM", "SKEWED"})
+    private CategoryMix categoryMix;
+
+    @Param({"false", "true"})
+    private boolean quoteCacheEnabled;
+
+    private CartService cartService;
+    private CartRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkCatalog catalog = BenchmarkCatalog.generate(cartSize, promotionCount, categoryMix);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ProductRepository productRepository = StubRepositories.products(catalog.products);
+        ProductCatalogCache catalogCache =
+                new ProductCatalogCache(productRepository, meterRegistry, 100_000, Duration.ofHours(1), Duration.ofHours(1));
+        ProductService productService = new ProductService(productRepository, null, catalogCache, null, null);
+        PromotionService promotionService = new PromotionService(StubRepositories.promotions(catalog.promotions),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()), meterRegistry);
+        QuoteCache quoteCache = new QuoteCache(meterRegistry, quoteCacheEnabled ? 10_000 : 0, Duration.ofHours(1));
+
+        cartService = new CartService(productService, promotionService, null, null, null, null, quoteCache, null,
+                new PipelineMetrics(meterRegistry), LargeCartMode.sequential());
+        request = catalog.cartRequest();
+    }
+
+    @Benchmark
+    public CartResponseDto calculateQuote() {
+        return cartService.calculateQuote(request);
+    }
+}
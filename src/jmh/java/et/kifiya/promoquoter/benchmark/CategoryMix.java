@@ -0,0 +1,27 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.enums.Category;
+
+import java.util.Random;
+
+/**
+ * How product categories are spread over a generated catalog.
+ */
+public enum CategoryMix {
+    /** Every product in one category, so every percent-off promotion on it matches every line. */
+    SINGLE,
+    /** Categories drawn uniformly. */
+    UNIFORM,
+    /** Roughly 80% of products in one category, the rest uniform. */
+    SKEWED;
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    Category pick(Random random) {
+        return switch (this) {
+            case SINGLE -> CATEGORIES[0];
+            case UNIFORM -> CATEGORIES[random.nextInt(CATEGORIES.length)];
+            case SKEWED -> random.nextInt(10) < 8 ? CATEGORIES[0] : CATEGORIES[random.nextInt(CATEGORIES.length)];
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package et.kifiya.promoquoter.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.PromoQuoterApplication;
+import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.ingest.StreamingImporter;
+import et.kifiya.promoquoter.service.BulkIngestionService;
+import et.kifiya.promoquoter.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product ingestion throughput in rows per second against the in-memory H2 database, comparing
+ * {@link ProductService#createProducts} (one {@code saveAll} transaction) with chunked JDBC batches
+ * through {@link BulkIngestionService}, and with the full streamed NDJSON import in front of it.
+ * The {@code rows} counter is the figure to read; the table grows across invocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestionBenchmark {
+
+    public enum Path { SAVE_ALL, BULK, STREAMED_BULK }
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    @Param({"SAVE_ALL", "BULK", "STREAMED_BULK"})
+    private Path path;
+
+    @Param({"1000"})
+    private int chunkSize;
+
+    @Param({"500"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private BulkIngestionService bulkIngestionService;
+    private StreamingImporter streamingImporter;
+    private List<ProductRequestDto> requests;
+    private byte[] ndjson;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(PromoQuoterApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:ingestion;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.et.kifiya.promoquoter=WARN",
+                        "promoquoter.streaming.chunk-size=" + chunkSize,
+                        "promoquoter.ingest.batch-size=" + batchSize)
+                .run();
+        productService = context.getBean(ProductService.class);
+        bulkIngestionService = context.getBean(BulkIngestionService.class);
+        streamingImporter = context.getBean(StreamingImporter.class);
+
+        requests = new ArrayList<>(rows);
+        Category[] categories = Category.values();
+        for (int i = 0; i < rows; i++) {
+            ProductRequestDto request = new ProductRequestDto();
+            request.setName("Product " + i);
+            request.setCategory(categories[i % categories.length]);
+            request.setPrice(BigDecimal.valueOf(100 + i % 10_000, 2));
+            request.setStock(1_000);
+            requests.add(request);
+        }
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (ProductRequestDto request : requests) {
+            body.write(objectMapper.writeValueAsBytes(request));
+            body.write('\n');
+        }
+        ndjson = body.toByteArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object ingest(Counters counters) throws IOException {
+        Object result = switch (path) {
+            case SAVE_ALL -> productService.createProducts(requests);
+            case BULK -> {
+                StreamingImporter.ChunkWriter<ProductRequestDto> writer = bulkIngestionService.productImport();
+                for (int from = 0; from < rows; from += chunkSize) {
+                    writer.write(requests.subList(from, Math.min(from + chunkSize, rows)));
+                }
+                writer.finish();
+                yield null;
+            }
+            case STREAMED_BULK -> streamingImporter.importRecords(new ByteArrayInputStream(ndjson),
+                    ProductRequestDto.class, null, bulkIngestionService.productImport());
+        };
+        counters.rows += rows;
+        return result;
+    }
+}
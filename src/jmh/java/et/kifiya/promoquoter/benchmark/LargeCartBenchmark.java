@@ -0,0 +1,79 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.service.ProductService;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CartService#calculateQuote} on very large carts, single pass against fork-join
+ * {@link LargeCartMode} at increasing parallelism. A parallelism of 0 prices sequentially. The
+ * quote cache is disabled so every invocation prices the cart.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LargeCartBenchmark {
+
+    @Param({"2000", "10000", "50000"})
+    private int cartSize;
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"100"})
+    private int promotionCount;
+
+    @Param({"UNIFORM", "SKEWED"})
+    private CategoryMix categoryMix;
+
+    private LargeCartMode largeCartMode;
+    private CartService cartService;
+    private CartRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkCatalog catalog = BenchmarkCatalog.generate(cartSize, promotionCount, categoryMix);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        ProductRepository productRepository = StubRepositories.products(catalog.products);
+        ProductCatalogCache catalogCache =
+                new ProductCatalogCache(productRepository, meterRegistry, 100_000, Duration.ofHours(1), Duration.ofHours(1));
+        ProductService productService = new ProductService(productRepository, null, catalogCache, null, null);
+        PromotionService promotionService = new PromotionService(StubRepositories.promotions(catalog.promotions),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()), meterRegistry);
+        QuoteCache quoteCache = new QuoteCache(meterRegistry, 0, Duration.ofHours(1));
+
+        largeCartMode = parallelism > 0 ? new LargeCartMode(2_000, parallelism, 512) : LargeCartMode.sequential();
+        cartService = new CartService(productService, promotionService, null, null, null, null, quoteCache, null,
+                new PipelineMetrics(meterRegistry), largeCartMode);
+        request = catalog.cartRequest();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        largeCartMode.shutdown();
+    }
+
+    @Benchmark
+    public CartResponseDto calculateQuote() {
+        return cartService.calculateQuote(request);
+    }
+}
@@ -0,0 +1,49 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.promotion.PromotionIndex;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PromotionService#applyPromotions} against the published promotion snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionEngineBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int cartSize;
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int promotionCount;
+
+    @Param({"SINGLE", "UNIFORM", "SKEWED"})
+    private CategoryMix categoryMix;
+
+    private BenchmarkCatalog catalog;
+    private PromotionService promotionService;
+    private PromotionIndex promotionIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = BenchmarkCatalog.generate(cartSize, promotionCount, categoryMix);
+        promotionService = new PromotionService(StubRepositories.promotions(catalog.promotions),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()), new SimpleMeterRegistry());
+        promotionIndex = promotionService.getPromotionIndex();
+    }
+
+    @Benchmark
+    public PromotionService.PromotionContext applyPromotions() {
+        return promotionService.applyPromotions(promotionIndex, catalog.cart);
+    }
+}
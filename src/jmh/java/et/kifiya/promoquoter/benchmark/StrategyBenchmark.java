@@ -0,0 +1,77 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BoundPromotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.promotion.PromotionStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single application of each strategy to a cart, isolated from promotion lookup. {@code arithmetic}
+ * compares the minor-unit money path with the BigDecimal path on the same cart.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    private int cartSize;
+
+    @Param({"SINGLE", "UNIFORM", "SKEWED"})
+    private CategoryMix categoryMix;
+
+    @Param({"MINOR_UNITS", "DECIMAL"})
+    private String arithmetic;
+
+    private BenchmarkCatalog catalog;
+    private CartLines cart;
+    private final BuyXGetYStrategy buyXGetY = new BuyXGetYStrategy();
+    private final PercentOffCategoryStrategy percentOffCategory = new PercentOffCategoryStrategy();
+    private Promotion buyXGetYPromotion;
+    private BoundPromotion percentOffPromotion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = BenchmarkCatalog.generate(cartSize, 0, categoryMix);
+        cart = "DECIMAL".equals(arithmetic) ? catalog.decimalCart() : catalog.cart;
+
+        buyXGetYPromotion = new Promotion();
+        buyXGetYPromotion.setId(UUID.randomUUID());
+        buyXGetYPromotion.setName("Buy 1 Get 1");
+        buyXGetYPromotion.setType(PromotionType.BUY_X_GET_Y);
+        buyXGetYPromotion.setProductId(catalog.products.get(0).getId());
+        buyXGetYPromotion.setBuyQuantity(1);
+        buyXGetYPromotion.setGetQuantity(1);
+
+        Promotion percentOff = new Promotion();
+        percentOff.setId(UUID.randomUUID());
+        percentOff.setName("15% off");
+        percentOff.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        percentOff.setCategory(Category.values()[0].name());
+        percentOff.setDiscountPercent(new BigDecimal("15"));
+        // bound as PromotionIndex.compile would, so the category is already resolved
+        percentOffPromotion = new BoundPromotion(percentOff, percentOffCategory, 0, Category.values()[0]);
+    }
+
+    @Benchmark
+    public PromotionStrategy.PromotionResult buyXGetY() {
+        return buyXGetY.apply(buyXGetYPromotion, cart);
+    }
+
+    @Benchmark
+    public PromotionStrategy.PromotionResult percentOffCategory() {
+        return percentOffCategory.apply(percentOffPromotion, cart, null);
+    }
+}
@@ -0,0 +1,73 @@
+package et.kifiya.promoquoter.benchmark;
+
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.repository.PromotionRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the Spring Data repositories used on the quote path. Plain dynamic
+ * proxies keep mocking-framework overhead out of the measurements.
+ */
+final class StubRepositories {
+
+    private StubRepositories() {
+    }
+
+    static ProductRepository products(List<Product> products) {
+        Map<UUID, Product> byId = new HashMap<>(products.size() * 2);
+        products.forEach(product -> byId.put(product.getId(), product));
+        return stub(ProductRepository.class, method -> switch (method) {
+            case "findAll" -> args -> new ArrayList<>(products);
+            case "findAllById" -> args -> {
+                List<Product> found = new ArrayList<>();
+                for (Object id : (Iterable<?>) args[0]) {
+                    Product product = byId.get(id);
+                    if (product != null) {
+                        found.add(product);
+                    }
+                }
+                return found;
+            };
+            case "findViewsByIdIn" -> args -> {
+                List<ProductView> found = new ArrayList<>();
+                for (Object id : (Collection<?>) args[0]) {
+                    Product product = byId.get(id);
+                    if (product != null) {
+                        found.add(ProductView.from(product));
+                    }
+                }
+                return found;
+            };
+            default -> null;
+        });
+    }
+
+    static PromotionRepository promotions(List<Promotion> promotions) {
+        return stub(PromotionRepository.class, method -> switch (method) {
+            case "findAll", "findByActiveTrueOrderByPriority" -> args -> new ArrayList<>(promotions);
+            default -> null;
+        });
+    }
+
+    private static <T> T stub(Class<T> type, Function<String, Function<Object[], Object>> handlers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> handler = handlers.apply(method.getName());
+                    if (handler != null) {
+                        return handler.apply(args);
+                    }
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> type.getSimpleName() + "Stub";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                }));
+    }
+}
@@ -0,0 +1,295 @@
+package et.kifiya.promoquoter.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.PromoQuoterApplication;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.workload.WorkloadGenerator;
+import et.kifiya.promoquoter.workload.WorkloadSpec;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Self-contained HTTP load test. Boots the application on an in-memory H2 database, seeds it
+ * through the {@code workload} profile, then drives {@code /api/v1/cart/quote} and
+ * {@code /api/v1/cart/confirm} at a constant arrival rate (open model): requests are issued on
+ * schedule whether or not earlier ones have finished, which is what exposes tail latency under
+ * checkout contention.
+ */
+public final class LoadHarness {
+
+    private static final String QUOTE_PATH = "/api/v1/cart/quote";
+    private static final String CONFIRM_PATH = "/api/v1/cart/confirm";
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final Iterator<CartRequest> carts;
+    private final List<String> hotSkus;
+    private final SplittableRandom random;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final OperationStats quoteStats = new OperationStats("quote");
+    private final OperationStats confirmStats = new OperationStats("confirm");
+
+    private long measureFrom;
+    private HttpRequest duplicatedRequest;
+    private int duplicatedRequestUses;
+
+    private LoadHarness(LoadOptions options, int port, WorkloadGenerator generator) {
+        this.options = options;
+        this.baseUrl = "http://localhost:" + port;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "load-client");
+                            thread.setDaemon(true);
+                            return thread;
+                        }))
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.carts = generator.carts(0).iterator();
+        this.random = new SplittableRandom(options.seed);
+        this.hotSkus = new ArrayList<>(options.hotSkus);
+        for (int i = 0; i < options.hotSkus; i++) {
+            hotSkus.add(generator.productId(i).toString());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        System.out.println("Starting application and seeding workload: " + options);
+
+        try (ConfigurableApplicationContext context = boot(options)) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            WorkloadGenerator generator = new WorkloadGenerator(context.getBean(WorkloadSpec.class));
+            raiseHotSkuStock(context.getBean(JdbcTemplate.class), generator, options);
+
+            LoadHarness harness = new LoadHarness(options, port, generator);
+            harness.run();
+            printServerMetrics(context.getBean(MeterRegistry.class));
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(LoadOptions options) {
+        // devtools would otherwise relaunch main() in a restart class loader without our arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(PromoQuoterApplication.class)
+                .profiles("workload")
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.et.kifiya.promoquoter=WARN",
+                        "--promoquoter.workload.seed=" + options.seed,
+                        "--promoquoter.workload.products=" + options.products,
+                        "--promoquoter.workload.promotions=" + options.promotions);
+    }
+
+    /**
+     * Gives the hot SKUs enough stock that contention, not sell-out, dominates the hot-SKU run.
+     */
+    private static void raiseHotSkuStock(JdbcTemplate jdbcTemplate, WorkloadGenerator generator, LoadOptions options) {
+        for (int i = 0; i < options.hotSkus; i++) {
+            jdbcTemplate.update("UPDATE product SET stock = ? WHERE id = ?", options.hotStock, generator.productId(i));
+        }
+    }
+
+    private void run() throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+
+        System.out.printf("Driving %s at %d req/s (warmup %s, measure %s)%n",
+                options.scenario, options.rate, options.warmup, options.duration);
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            issue(intended);
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        double seconds = options.duration.toNanos() / 1e9;
+        System.out.printf("%nResults over %.0f s (%s)%n", seconds, options);
+        quoteStats.report(System.out, seconds);
+        confirmStats.report(System.out, seconds);
+        if (inFlight.get() > 0) {
+            System.out.printf("%n%d requests still in flight after drain timeout%n", inFlight.get());
+        }
+    }
+
+    /**
+     * Server-side pipeline timers, summed over cart sizes. Unlike the client numbers these include
+     * the warmup period.
+     */
+    private static void printServerMetrics(MeterRegistry registry) {
+        Map<String, long[]> stages = new TreeMap<>();
+        Map<String, double[]> totals = new TreeMap<>();
+        collect(registry.find(PipelineMetrics.STAGE_TIMER).timers(), "stage", stages, totals);
+        collect(registry.find(PipelineMetrics.STRATEGY_TIMER).timers(), "type", stages, totals);
+
+        System.out.printf("%n== server pipeline stages (including warmup) ==%n");
+        stages.forEach((name, counts) -> {
+            double[] total = totals.get(name);
+            System.out.printf("%-40s count=%-8d mean=%.3fms max=%.3fms%n",
+                    name, counts[0], counts[0] > 0 ? total[0] / counts[0] : 0, total[1]);
+        });
+        for (DistributionSummary attempts : registry.find(PipelineMetrics.CONFIRM_ATTEMPTS).summaries()) {
+            System.out.printf("confirm attempts outcome=%-9s confirms=%-6d mean=%.2f max=%.0f%n",
+                    attempts.getId().getTag("outcome"), attempts.count(), attempts.mean(), attempts.max());
+        }
+    }
+
+    private static void collect(Iterable<Timer> timers, String nameTag, Map<String, long[]> counts,
+                                Map<String, double[]> totals) {
+        for (Timer timer : timers) {
+            String name = timer.getId().getTag(nameTag) + " " + timer.getId().getTag("outcome");
+            counts.computeIfAbsent(name, ignored -> new long[1])[0] += timer.count();
+            double[] total = totals.computeIfAbsent(name, ignored -> new double[2]);
+            total[0] += timer.totalTime(TimeUnit.MILLISECONDS);
+            total[1] = Math.max(total[1], timer.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void issue(long intended) throws Exception {
+        boolean confirm = switch (options.scenario) {
+            case QUOTE -> false;
+            case HOT_SKU, DUPLICATE_KEY -> true;
+            case MIXED -> random.nextDouble() < options.confirmShare;
+        };
+        OperationStats stats = confirm ? confirmStats : quoteStats;
+        boolean measured = intended >= measureFrom;
+
+        if (inFlight.get() >= options.maxInFlight) {
+            if (measured) {
+                stats.dropped();
+            }
+            return;
+        }
+
+        HttpRequest request = confirm ? confirmRequest() : quoteRequest();
+        if (measured) {
+            stats.sent();
+        }
+        inFlight.incrementAndGet();
+        send(request, stats, intended, measured, 0);
+    }
+
+    private void send(HttpRequest request, OperationStats stats, long intended, boolean measured, int attempt) {
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() == 409 && isRetryable(response.body())
+                    && attempt < options.maxRetries) {
+                if (measured) {
+                    stats.retried();
+                }
+                CompletableFuture.delayedExecutor(20L * (attempt + 1), TimeUnit.MILLISECONDS)
+                        .execute(() -> send(request, stats, intended, measured, attempt + 1));
+                return;
+            }
+
+            long latency = System.nanoTime() - intended;
+            if (measured) {
+                if (error != null) {
+                    stats.failed(latency);
+                    stats.error(error.getClass().getSimpleName() + ": " + error.getMessage());
+                } else {
+                    stats.completed(response.statusCode(), response.body().contains("\"Duplicated\""), latency);
+                    if (response.statusCode() >= 400) {
+                        stats.error(response.statusCode() + " " + response.body());
+                    }
+                }
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private boolean isRetryable(String body) {
+        return body.contains("concurrent modification") || body.contains("still being processed");
+    }
+
+    private HttpRequest quoteRequest() throws Exception {
+        return post(QUOTE_PATH, carts.next(), null);
+    }
+
+    private HttpRequest confirmRequest() throws Exception {
+        if (options.scenario == Scenario.DUPLICATE_KEY && duplicatedRequest != null
+                && duplicatedRequestUses < options.duplicates) {
+            duplicatedRequestUses++;
+            return duplicatedRequest;
+        }
+
+        CartRequest cart = carts.next();
+        List<CartItemRequest> items = new ArrayList<>(cart.getItems());
+        if (options.scenario == Scenario.HOT_SKU) {
+            String hotSku = hotSkus.get(random.nextInt(hotSkus.size()));
+            items.removeIf(item -> item.getProductId().equals(hotSku));
+            CartItemRequest hotLine = new CartItemRequest();
+            hotLine.setProductId(hotSku);
+            hotLine.setQty(1);
+            items.add(0, hotLine);
+        }
+
+        CartConfirmRequest confirm = new CartConfirmRequest();
+        confirm.setItems(items);
+        confirm.setCustomerSegment(cart.getCustomerSegment());
+        HttpRequest request = post(CONFIRM_PATH, confirm, new UUID(random.nextLong(), random.nextLong()).toString());
+        if (options.scenario == Scenario.DUPLICATE_KEY) {
+            duplicatedRequest = request;
+            duplicatedRequestUses = 1;
+        }
+        return request;
+    }
+
+    private HttpRequest post(String path, Object body, String idempotencyKey) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package et.kifiya.promoquoter.load;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Command-line options, all given as {@code --name=value}.
+ */
+final class LoadOptions {
+
+    Scenario scenario = Scenario.MIXED;
+    int rate = 200;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(30);
+    long seed = 42L;
+    long products = 50_000L;
+    int promotions = 2_000;
+    int maxInFlight = 2_000;
+    int maxRetries = 2;
+    int duplicates = 4;
+    int hotSkus = 5;
+    int hotStock = 1_000_000;
+    double confirmShare = 0.2;
+
+    static LoadOptions parse(String[] args) {
+        LoadOptions options = new LoadOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "scenario" -> options.scenario = Scenario.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.parse(value);
+                case "duration" -> options.duration = Duration.parse(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "products" -> options.products = Long.parseLong(value);
+                case "promotions" -> options.promotions = Integer.parseInt(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "max-retries" -> options.maxRetries = Integer.parseInt(value);
+                case "duplicates" -> options.duplicates = Integer.parseInt(value);
+                case "hot-skus" -> options.hotSkus = Integer.parseInt(value);
+                case "hot-stock" -> options.hotStock = Integer.parseInt(value);
+                case "confirm-share" -> options.confirmShare = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("scenario=%s rate=%d/s warmup=%s duration=%s products=%d promotions=%d seed=%d",
+                scenario.name().toLowerCase(Locale.ROOT).replace('_', '-'), rate, warmup, duration,
+                products, promotions, seed);
+    }
+}
@@ -0,0 +1,111 @@
+package et.kifiya.promoquoter.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters and a latency histogram for one endpoint. Latency runs from the request's
+ * scheduled start, not from when it was actually sent, so queueing delay is not hidden
+ * (no coordinated omission).
+ */
+final class OperationStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final int MAX_ERROR_LENGTH = 160;
+    private static final int MAX_DISTINCT_ERRORS = 100;
+
+    private final String name;
+    private final Recorder latency = new Recorder(MAX_TRACKABLE_NANOS, 3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    void error(String description) {
+        String key = description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+        if (errors.size() < MAX_DISTINCT_ERRORS || errors.containsKey(key)) {
+            errors.computeIfAbsent(key, ignored -> new LongAdder()).increment();
+        }
+    }
+
+    void completed(int status, boolean duplicate, long latencyNanos) {
+        latency.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status == 409) {
+            conflicts.increment();
+        } else if (status >= 400 && status < 500) {
+            clientErrors.increment();
+        } else {
+            serverErrors.increment();
+        }
+        if (duplicate) {
+            duplicates.increment();
+        }
+    }
+
+    void failed(long latencyNanos) {
+        latency.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        failures.increment();
+    }
+
+    void report(PrintStream out, double seconds) {
+        long total = sent.sum();
+        if (total == 0 && dropped.sum() == 0) {
+            return;
+        }
+        Histogram histogram = latency.getIntervalHistogram();
+        long completed = histogram.getTotalCount();
+
+        out.printf("%n== %s ==%n", name);
+        out.printf("requests      sent=%d completed=%d dropped=%d throughput=%.1f/s%n",
+                total, completed, dropped.sum(), completed / seconds);
+        out.printf("status        2xx=%d 409=%d 4xx=%d 5xx=%d io-errors=%d%n",
+                ok.sum(), conflicts.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum());
+        out.printf("rates         409=%.2f%% retries=%d duplicates=%d%n",
+                completed == 0 ? 0d : 100d * conflicts.sum() / completed, retries.sum(), duplicates.sum());
+        out.printf("latency (ms)  p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+        errors.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(5)
+                .forEach(e -> out.printf("error x%-6d %s%n", e.getValue().sum(), e.getKey()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
@@ -0,0 +1,15 @@
+package et.kifiya.promoquoter.load;
+
+/**
+ * Traffic shapes the harness can drive.
+ */
+enum Scenario {
+    /** Quotes only, carts drawn from the Zipf-skewed workload. */
+    QUOTE,
+    /** Confirms that all contain one of a few hot SKUs, so every order fights over the same rows. */
+    HOT_SKU,
+    /** Confirms where each Idempotency-Key is sent several times back to back. */
+    DUPLICATE_KEY,
+    /** Mostly quotes with a share of confirms, each with its own key. */
+    MIXED
+}
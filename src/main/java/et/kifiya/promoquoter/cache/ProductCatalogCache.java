@@ -0,0 +1,122 @@
+package et.kifiya.promoquoter.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded near-cache of product catalog data for the quote read path. Entries carry the product
+ * {@code @Version}; a newer version with different name, category or price evicts the entry and
+ * bumps the catalog version, while a stock-only change just advances the cached version.
+ * <p>
+ * Application writes invalidate explicitly. Entries are also reloaded in the background once they
+ * are {@code refresh-after-write} old, so a change made behind the application's back, such as a
+ * direct database update, is picked up and bumps the catalog version too; nothing outlives
+ * {@code expire-after-write}.
+ */
+@Component
+@Slf4j
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<UUID, ProductView> cache;
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    public ProductCatalogCache(ProductRepository productRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${promoquoter.catalog-cache.maximum-size:100000}") long maximumSize,
+                               @Value("${promoquoter.catalog-cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+                               @Value("${promoquoter.catalog-cache.refresh-after-write:PT1M}") Duration refreshAfterWrite) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .build(new CatalogLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productCatalog");
+    }
+
+    public Map<UUID, ProductView> getAll(Collection<UUID> productIds) {
+        return cache.getAll(productIds);
+    }
+
+    /**
+     * Reconciles the cache with a freshly loaded entity.
+     */
+    public void observe(Product product) {
+        ProductView cached = cache.getIfPresent(product.getId());
+        if (cached == null || product.getVersion() == null
+                || (cached.version() != null && cached.version() >= product.getVersion())) {
+            return;
+        }
+        if (cached.hasSameCatalogData(product)) {
+            cache.asMap().replace(product.getId(), cached, cached.withVersion(product.getVersion()));
+        } else {
+            invalidate(product.getId());
+        }
+    }
+
+    public void invalidate(UUID productId) {
+        cache.invalidate(productId);
+        catalogVersion.incrementAndGet();
+        log.debug("Evicted product {} from catalog cache", productId);
+    }
+
+    /**
+     * Bumps the catalog version for new products inserted outside the entity path. A miss is never
+     * cached, so there is nothing to evict.
+     */
+    public void productsAdded(long count) {
+        catalogVersion.incrementAndGet();
+        log.debug("{} products added behind the catalog cache", count);
+    }
+
+    /**
+     * Incremented whenever cached catalog data (name, category or price) is found to be stale.
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    private final class CatalogLoader implements CacheLoader<UUID, ProductView> {
+
+        @Override
+        public ProductView load(UUID productId) {
+            List<ProductView> loaded = productRepository.findViewsByIdIn(List.of(productId));
+            return loaded.isEmpty() ? null : loaded.get(0);
+        }
+
+        @Override
+        public Map<UUID, ProductView> loadAll(Set<? extends UUID> productIds) {
+            List<ProductView> loaded = productRepository.findViewsByIdIn(new ArrayList<>(productIds));
+            Map<UUID, ProductView> views = new HashMap<>(loaded.size() * 2);
+            for (ProductView view : loaded) {
+                views.put(view.id(), view);
+            }
+            return views;
+        }
+
+        @Override
+        public ProductView reload(UUID productId, ProductView oldView) {
+            ProductView view = load(productId);
+            if (view == null || !view.hasSameCatalogData(oldView)) {
+                catalogVersion.incrementAndGet();
+                log.debug("Product {} changed in the database, refreshed its catalog entry", productId);
+            }
+            return view;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package et.kifiya.promoquoter.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartItemDto;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Priced quotes keyed by {@link QuoteFingerprint}. Because the fingerprint carries the catalog and
+ * promotion versions, a price or promotion change makes older entries unreachable; they then age
+ * out by size or TTL. Every hit is handed out as a copy with its own quote id; the item and
+ * promotion lists are frozen when stored, since that copy shares them with every other hit. Items
+ * are stored in the fingerprint's sorted line order and handed back in the order, and with the
+ * product id spelling, of the request being answered.
+ */
+@Component
+public class QuoteCache {
+
+    private final Cache<QuoteFingerprint, CartResponseDto> cache;
+
+    public QuoteCache(MeterRegistry meterRegistry,
+                      @Value("${promoquoter.quote-cache.maximum-size:50000}") long maximumSize,
+                      @Value("${promoquoter.quote-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "quotes");
+    }
+
+    /**
+     * @param items the lines of the request being answered, in the order {@code fingerprint} was built from
+     */
+    public CartResponseDto get(QuoteFingerprint fingerprint, List<CartItemRequest> items,
+                               Supplier<CartResponseDto> pricing) {
+        CartResponseDto priced = cache.get(fingerprint, key -> frozen(pricing.get(), fingerprint));
+        return new CartResponseDto(
+                inRequestOrder(priced.getCartItemDtos(), fingerprint, items),
+                priced.getAppliedPromotions(),
+                priced.getSubtotal(),
+                priced.getTotalDiscount(),
+                priced.getTotal(),
+                UUID.randomUUID().toString(),
+                null,
+                null
+        );
+    }
+
+    private static List<CartItemDto> inRequestOrder(List<CartItemDto> sorted, QuoteFingerprint fingerprint,
+                                                    List<CartItemRequest> items) {
+        if (sorted == null) {
+            return null;
+        }
+        CartItemDto[] ordered = new CartItemDto[sorted.size()];
+        for (int line = 0; line < ordered.length; line++) {
+            CartItemDto item = sorted.get(fingerprint.position(line));
+            String productId = items.get(line).getProductId();
+            if (!item.getProductId().equals(productId)) {
+                item = new CartItemDto(productId, item.getProductName(), item.getCategory(), item.getQuantity(),
+                        item.getUnitPrice(), item.getLineTotal(), item.getDiscount(), item.getFinalPrice());
+            }
+            ordered[line] = item;
+        }
+        return List.of(ordered);
+    }
+
+    private static CartResponseDto frozen(CartResponseDto priced, QuoteFingerprint fingerprint) {
+        return new CartResponseDto(
+                sorted(priced.getCartItemDtos(), fingerprint),
+                frozen(priced.getAppliedPromotions()),
+                priced.getSubtotal(),
+                priced.getTotalDiscount(),
+                priced.getTotal(),
+                null,
+                null,
+                null
+        );
+    }
+
+    private static List<CartItemDto> sorted(List<CartItemDto> items, QuoteFingerprint fingerprint) {
+        if (items == null) {
+            return null;
+        }
+        CartItemDto[] sorted = new CartItemDto[items.size()];
+        for (int line = 0; line < sorted.length; line++) {
+            sorted[fingerprint.position(line)] = items.get(line);
+        }
+        return List.of(sorted);
+    }
+
+    private static <T> List<T> frozen(List<T> list) {
+        return list == null ? null : List.copyOf(list);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,94 @@
+package et.kifiya.promoquoter.cache;
+
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Canonical identity of a quote: the cart lines sorted by product id, the customer segment and the
+ * catalog and promotion versions it was priced against. Two carts listing the same lines in a
+ * different order share a fingerprint; any price or promotion change produces a new one. Where each
+ * request line falls in the sorted order is carried along, outside the identity, so a shared quote
+ * can be handed back in the order of the request that asked for it.
+ */
+public final class QuoteFingerprint {
+
+    private final long[] lines;
+    private final CustomerSegment customerSegment;
+    private final long catalogVersion;
+    private final long promotionVersion;
+    private final int[] positions;
+    private final int hash;
+
+    private QuoteFingerprint(long[] lines, CustomerSegment customerSegment, long catalogVersion, long promotionVersion,
+                             int[] positions) {
+        this.lines = lines;
+        this.positions = positions;
+        this.customerSegment = customerSegment;
+        this.catalogVersion = catalogVersion;
+        this.promotionVersion = promotionVersion;
+        this.hash = 31 * (31 * (31 * Arrays.hashCode(lines) + Objects.hashCode(customerSegment))
+                + Long.hashCode(catalogVersion)) + Long.hashCode(promotionVersion);
+    }
+
+    /**
+     * @param productIds the already parsed product id of each line in {@code items}
+     */
+    public static QuoteFingerprint of(UUID[] productIds, List<CartItemRequest> items, CustomerSegment customerSegment,
+                                      long catalogVersion, long promotionVersion) {
+        Line[] sorted = new Line[items.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = new Line(productIds[i], items.get(i).getQty(), i);
+        }
+        Arrays.sort(sorted);
+
+        long[] lines = new long[sorted.length * 3];
+        int[] positions = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            positions[sorted[i].requestLine] = i;
+            lines[i * 3] = sorted[i].productId.getMostSignificantBits();
+            lines[i * 3 + 1] = sorted[i].productId.getLeastSignificantBits();
+            lines[i * 3 + 2] = sorted[i].quantity;
+        }
+        return new QuoteFingerprint(lines, customerSegment, catalogVersion, promotionVersion, positions);
+    }
+
+    /**
+     * Position of request line {@code line} in the sorted order.
+     */
+    int position(int line) {
+        return positions[line];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QuoteFingerprint other)) {
+            return false;
+        }
+        return hash == other.hash
+                && catalogVersion == other.catalogVersion
+                && promotionVersion == other.promotionVersion
+                && customerSegment == other.customerSegment
+                && Arrays.equals(lines, other.lines);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private record Line(UUID productId, int quantity, int requestLine) implements Comparable<Line> {
+        @Override
+        public int compareTo(Line other) {
+            int byProduct = productId.compareTo(other.productId);
+            return byProduct != 0 ? byProduct : Integer.compare(quantity, other.quantity);
+        }
+    }
+}
@@ -2,31 +2,76 @@ package et.kifiya.promoquoter.controller;
 
 
 import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.BatchQuoteResult;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
 import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.exception.ValidationException;
+import et.kifiya.promoquoter.ingest.StreamingImporter;
 import et.kifiya.promoquoter.service.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/cart")
 @RequiredArgsConstructor
 public class CartController {
     private final CartService cartService;
+    private final StreamingImporter streamingImporter;
 
     @PostMapping("/quote")
-    public ResponseEntity<CartResponseDto> calculateQuote(@Valid @RequestBody CartRequest request) {
-        CartResponseDto response = cartService.calculateQuote(request);
+    public ResponseEntity<CartResponseDto> calculateQuote(
+            @Valid @RequestBody CartRequest request,
+            @RequestParam(value = "explain", defaultValue = "false") boolean explain) {
+        CartResponseDto response = cartService.calculateQuote(request, explain);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * NDJSON variant of {@link #calculateQuote}: one cart line per body line, with the rest of the
+     * request in query parameters. Lines are validated as they are read and a cart longer than the
+     * configured limit is rejected without reading the rest of the body.
+     */
+    @PostMapping(value = "/quote", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<CartResponseDto> calculateStreamedQuote(
+            InputStream body,
+            @RequestParam(value = "customerSegment", required = false) CustomerSegment customerSegment,
+            @RequestParam(value = "reserve", defaultValue = "false") boolean reserve,
+            @RequestParam(value = "explain", defaultValue = "false") boolean explain) throws IOException {
+        List<CartItemRequest> items = streamingImporter.readAll(body, CartItemRequest.class,
+                streamingImporter.getMaxCartLines());
+        if (items.isEmpty()) {
+            throw new ValidationException("Cart items cannot be empty");
+        }
+        CartRequest request = new CartRequest();
+        request.setItems(items);
+        request.setCustomerSegment(customerSegment);
+        request.setReserve(reserve);
+        return ResponseEntity.ok(cartService.calculateQuote(request, explain));
+    }
+
+    /**
+     * Quotes every cart of the batch; results come back in request order, and a cart that fails
+     * validation or pricing gets its own failure entry without affecting the others.
+     */
+    @PostMapping("/quote:batch")
+    public ResponseEntity<List<BatchQuoteResult>> calculateQuotes(@RequestBody List<CartRequest> requests) {
+        List<BatchQuoteResult> results = cartService.calculateQuotes(requests);
+        return ResponseEntity.ok(results);
+    }
+
     @PostMapping("/confirm")
     public ResponseEntity<CartConfirmResponse> confirmCart(
             @Valid @RequestBody CartConfirmRequest request,
@@ -1,16 +1,28 @@
 package et.kifiya.promoquoter.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportResult;
+import et.kifiya.promoquoter.dto.ResponseDTO.PageResponse;
 import et.kifiya.promoquoter.dto.ResponseDTO.ProductResponse;
 import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.ingest.StreamingImporter;
 import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.service.BulkIngestionService;
+import et.kifiya.promoquoter.service.CatalogListingService;
 import et.kifiya.promoquoter.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,6 +32,10 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final StreamingImporter streamingImporter;
+    private final BulkIngestionService bulkIngestionService;
+    private final CatalogListingService catalogListingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<List<ProductResponse>> createProducts(
@@ -28,10 +44,38 @@ public class ProductController {
         return new ResponseEntity<>(responses, HttpStatus.CREATED);
     }
 
+    /**
+     * Streamed variant of {@link #createProducts}: the body is a JSON array or NDJSON, read record by
+     * record and written in JDBC-batched chunks that each commit on their own.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResult> importProducts(InputStream body) throws IOException {
+        ImportResult result = streamingImporter.importRecords(body, ProductRequestDto.class, null,
+                bulkIngestionService.productImport());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Every product, optionally of one category, in id order, written as it is read from the
+     * database: a JSON array, or NDJSON for {@code Accept: application/x-ndjson}.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @RequestParam(value = "category", required = false) Category category,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return ListingStreams.<ProductResponse>stream(objectMapper, accept,
+                rows -> catalogListingService.streamProducts(category, rows));
+    }
+
+    /**
+     * One page of products in id order; pass the returned {@code nextCursor} as {@code after}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<ProductResponse>> getProductPage(
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "after", required = false) UUID after,
+            @RequestParam(value = "category", required = false) Category category) {
+        return ResponseEntity.ok(catalogListingService.getProductPage(category, after, limit));
     }
 
     @GetMapping("/{id}")
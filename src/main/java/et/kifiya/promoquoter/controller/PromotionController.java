@@ -1,17 +1,28 @@
 package et.kifiya.promoquoter.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportResult;
+import et.kifiya.promoquoter.dto.ResponseDTO.PageResponse;
 import et.kifiya.promoquoter.dto.ResponseDTO.PromotionResponseDto;
 import et.kifiya.promoquoter.dto.requestDTO.PromotionRequestDto;
 import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.ingest.StreamingImporter;
 import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.service.BulkIngestionService;
+import et.kifiya.promoquoter.service.CatalogListingService;
 import et.kifiya.promoquoter.service.PromotionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +32,10 @@ import java.util.UUID;
 public class PromotionController {
 
     private final PromotionService promotionService;
+    private final StreamingImporter streamingImporter;
+    private final BulkIngestionService bulkIngestionService;
+    private final CatalogListingService catalogListingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<List<PromotionResponseDto>> createPromotions(
@@ -29,10 +44,39 @@ public class PromotionController {
         return new ResponseEntity<>(responses, HttpStatus.CREATED);
     }
 
+    /**
+     * Streamed variant of {@link #createPromotions}: the body is a JSON array or NDJSON, read record by
+     * record and written in JDBC-batched chunks that each commit on their own. A promotion no
+     * strategy can evaluate is reported and skipped instead of failing its chunk.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportResult> importPromotions(InputStream body) throws IOException {
+        ImportResult result = streamingImporter.importRecords(body, PromotionRequestDto.class,
+                promotionService::validate, bulkIngestionService.promotionImport());
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Every promotion, optionally of one type, in id order, written as it is read from the
+     * database: a JSON array, or NDJSON for {@code Accept: application/x-ndjson}.
+     */
     @GetMapping
-    public ResponseEntity<List<PromotionResponseDto>> getAllPromotions() {
-        List<PromotionResponseDto> promotions = promotionService.getAllPromotions();
-        return ResponseEntity.ok(promotions);
+    public ResponseEntity<StreamingResponseBody> getAllPromotions(
+            @RequestParam(value = "type", required = false) PromotionType type,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return ListingStreams.<PromotionResponseDto>stream(objectMapper, accept,
+                rows -> catalogListingService.streamPromotions(type, rows));
+    }
+
+    /**
+     * One page of promotions in id order; pass the returned {@code nextCursor} as {@code after}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PageResponse<PromotionResponseDto>> getPromotionPage(
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "after", required = false) UUID after,
+            @RequestParam(value = "type", required = false) PromotionType type) {
+        return ResponseEntity.ok(catalogListingService.getPromotionPage(type, after, limit));
     }
 
     @GetMapping("/active")
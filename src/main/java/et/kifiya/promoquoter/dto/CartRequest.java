@@ -17,4 +17,5 @@ public class CartRequest {
     @Valid
     private List<CartItemRequest> items;
     private CustomerSegment customerSegment;
+    private boolean reserve;
 }
\ No newline at end of file
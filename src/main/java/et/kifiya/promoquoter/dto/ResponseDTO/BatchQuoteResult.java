@@ -0,0 +1,25 @@
+package et.kifiya.promoquoter.dto.ResponseDTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchQuoteResult {
+
+    private int index;
+    private CartResponseDto quote;
+    private String error;
+
+    public static BatchQuoteResult success(int index, CartResponseDto quote) {
+        return new BatchQuoteResult(index, quote, null);
+    }
+
+    public static BatchQuoteResult failure(int index, String error) {
+        return new BatchQuoteResult(index, null, error);
+    }
+}
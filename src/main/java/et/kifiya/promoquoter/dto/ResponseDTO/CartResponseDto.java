@@ -1,10 +1,12 @@
 package et.kifiya.promoquoter.dto.ResponseDTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -18,4 +20,8 @@ public class CartResponseDto {
     private BigDecimal totalDiscount;
     private BigDecimal total;
     private String quoteId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime reservationExpiresAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<PromotionEvaluationDto> explain;
 }
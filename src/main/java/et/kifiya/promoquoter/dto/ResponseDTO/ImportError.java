@@ -0,0 +1,15 @@
+package et.kifiya.promoquoter.dto.ResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportError {
+
+    private long index;
+    private int line;
+    private String error;
+}
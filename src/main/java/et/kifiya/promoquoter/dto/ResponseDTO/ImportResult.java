@@ -0,0 +1,25 @@
+package et.kifiya.promoquoter.dto.ResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a streamed import. Only the first errors are listed; {@code rejected} counts them all.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportResult {
+
+    private long received;
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private List<ImportError> errors;
+    private boolean errorsTruncated;
+    private long durationMillis;
+    private double rowsPerSecond;
+}
@@ -0,0 +1,20 @@
+package et.kifiya.promoquoter.dto.ResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page. {@code nextCursor} is passed back as {@code after} for the next page and is null
+ * on the last one.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor;
+}
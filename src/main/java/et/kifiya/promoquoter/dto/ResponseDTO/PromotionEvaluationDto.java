@@ -0,0 +1,23 @@
+package et.kifiya.promoquoter.dto.ResponseDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PromotionEvaluationDto {
+
+    private String promotionId;
+    private String promotionName;
+    private String type;
+    private boolean matched;
+    private long evaluationNanos;
+    private BigDecimal discountAmount;
+    private List<String> lines;
+    private String reason;
+}
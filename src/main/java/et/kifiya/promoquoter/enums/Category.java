@@ -6,5 +6,19 @@ public enum Category {
     BOOKS,
     HOME_APPLIANCES,
     SPORTS,
-    BEAUTY
+    BEAUTY;
+
+    private static final Category[] VALUES = values();
+
+    /**
+     * The category with exactly this name, or null when there is none.
+     */
+    public static Category fromName(String name) {
+        for (Category category : VALUES) {
+            if (category.name().equals(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,84 @@
+package et.kifiya.promoquoter.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads JSON records one at a time from a request body, token by token, so only the current record
+ * is held in memory. The body is either one JSON array of records or a sequence of root-level
+ * records, one per line as in NDJSON; the first token decides which.
+ */
+public final class JsonRecordReader implements Closeable {
+
+    private final JsonParser parser;
+    private final boolean array;
+    private boolean started;
+    private boolean finished;
+    private long records;
+    private int line;
+
+    private JsonRecordReader(JsonParser parser, boolean array) {
+        this.parser = parser;
+        this.array = array;
+    }
+
+    public static JsonRecordReader open(ObjectMapper objectMapper, InputStream body) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(body);
+        JsonToken first = parser.nextToken();
+        return new JsonRecordReader(parser, first == JsonToken.START_ARRAY);
+    }
+
+    /**
+     * The next record as a tree, or null at the end of the body.
+     *
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the body is not well-formed JSON
+     */
+    public JsonNode next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // a sequence of root-level records starts on its first record, an array on the opening bracket
+        JsonToken token = array || started ? parser.nextToken() : parser.currentToken();
+        started = true;
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            finished = true;
+            return null;
+        }
+        line = parser.currentLocation().getLineNr();
+        JsonNode record = parser.readValueAsTree();
+        records++;
+        return record;
+    }
+
+    /**
+     * Number of records read so far; the index of the last record returned is one less.
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * The body line the last record returned started on.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Where the parser is, for reporting a malformed body.
+     */
+    public int getCurrentLine() {
+        return parser.currentLocation().getLineNr();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
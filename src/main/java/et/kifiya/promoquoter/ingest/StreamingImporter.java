@@ -0,0 +1,270 @@
+package et.kifiya.promoquoter.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportError;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportResult;
+import et.kifiya.promoquoter.exception.ValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Streams records out of a request body with {@link JsonRecordReader}, binds and validates them one
+ * at a time and hands valid ones on in fixed-size chunks, so memory stays flat however large the
+ * body is. Not transactional itself: each chunk is written by its own call into a transactional
+ * service, so a chunk commits before the next one is read. Progress is logged every
+ * {@code promoquoter.streaming.progress-interval} records.
+ */
+@Component
+@Slf4j
+public class StreamingImporter {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final int maxCartLines;
+    private final long progressInterval;
+
+    public StreamingImporter(ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${promoquoter.streaming.chunk-size:1000}") int chunkSize,
+                             @Value("${promoquoter.streaming.max-errors:1000}") int maxErrors,
+                             @Value("${promoquoter.streaming.max-cart-lines:1000000}") int maxCartLines,
+                             @Value("${promoquoter.streaming.progress-interval:100000}") long progressInterval) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Streaming chunk size must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.maxCartLines = maxCartLines;
+        this.progressInterval = progressInterval;
+    }
+
+    public int getMaxCartLines() {
+        return maxCartLines;
+    }
+
+    /**
+     * Imports every record of {@code body}. A record that does not bind, fails bean validation or
+     * fails {@code check} (which returns a reason, or null) is reported and skipped; the rest are
+     * passed to {@code writer} in chunks, and records it fails are reported one by one. A chunk whose
+     * write throws is reported once, against its first record, and counted as rejected in full.
+     * {@code writer} is told once when the import ends, however it ends, so that work which only
+     * needs to happen once per import is not repeated per chunk.
+     *
+     * @throws ValidationException if the body is not well-formed JSON; chunks before the error stay imported
+     */
+    public <T> ImportResult importRecords(InputStream body, Class<T> type, Function<T, String> check,
+                                          ChunkWriter<T> writer) throws IOException {
+        Tally tally = new Tally(type.getSimpleName());
+        List<T> chunk = new ArrayList<>(chunkSize);
+        long[] chunkIndexes = new long[chunkSize];
+        int[] chunkLines = new int[chunkSize];
+
+        try {
+            try (JsonRecordReader reader = JsonRecordReader.open(objectMapper, body)) {
+                JsonNode node;
+                while ((node = next(reader, tally)) != null) {
+                    long index = reader.getRecordCount() - 1;
+                    T record = null;
+                    String problem;
+                    try {
+                        record = objectMapper.treeToValue(node, type);
+                        problem = validate(record);
+                        if (problem == null && check != null) {
+                            problem = check.apply(record);
+                        }
+                    } catch (JsonProcessingException e) {
+                        problem = e.getOriginalMessage();
+                    }
+                    if (problem != null) {
+                        tally.reject(index, reader.getLine(), problem, 1);
+                        continue;
+                    }
+                    chunkIndexes[chunk.size()] = index;
+                    chunkLines[chunk.size()] = reader.getLine();
+                    chunk.add(record);
+                    if (chunk.size() == chunkSize) {
+                        writeChunk(chunk, writer, chunkIndexes, chunkLines, tally);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, writer, chunkIndexes, chunkLines, tally);
+            }
+        } finally {
+            finish(writer, type);
+        }
+        ImportResult result = tally.toResult();
+        log.info("Imported {} of {} {} records in {} ms ({} rows/s)", result.getImported(), result.getReceived(),
+                type.getSimpleName(), result.getDurationMillis(), Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * Reads and validates every record of {@code body} for a request that needs them all at once,
+     * such as the lines of one cart, failing on the first invalid record or once the body holds more
+     * than {@code maxRecords}.
+     */
+    public <T> List<T> readAll(InputStream body, Class<T> type, int maxRecords) throws IOException {
+        List<T> records = new ArrayList<>();
+        try (JsonRecordReader reader = JsonRecordReader.open(objectMapper, body)) {
+            JsonNode node;
+            while ((node = next(reader, null)) != null) {
+                long index = reader.getRecordCount() - 1;
+                if (index >= maxRecords) {
+                    throw new ValidationException("At most " + maxRecords + " records are accepted");
+                }
+                String problem;
+                T record = null;
+                try {
+                    record = objectMapper.treeToValue(node, type);
+                    problem = validate(record);
+                } catch (JsonProcessingException e) {
+                    problem = e.getOriginalMessage();
+                }
+                if (problem != null) {
+                    throw new ValidationException(String.format("Record %d (line %d): %s", index, reader.getLine(), problem));
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private JsonNode next(JsonRecordReader reader, Tally tally) throws IOException {
+        try {
+            return reader.next();
+        } catch (JsonProcessingException e) {
+            String progress = tally != null
+                    ? String.format(" after %d records, %d imported", reader.getRecordCount(), tally.imported)
+                    : "";
+            throw new ValidationException(String.format("Malformed JSON at line %d%s: %s",
+                    reader.getCurrentLine(), progress, e.getOriginalMessage()));
+        }
+    }
+
+    private <T> void writeChunk(List<T> chunk, ChunkWriter<T> writer, long[] indexes, int[] lines, Tally tally) {
+        try {
+            String[] failures = writer.write(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (failures != null && failures[i] != null) {
+                    tally.reject(indexes[i], lines[i], failures[i], 1);
+                } else {
+                    tally.imported++;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Streamed import chunk of {} records from record {} failed", chunk.size(), indexes[0], e);
+            tally.reject(indexes[0], lines[0],
+                    "Chunk of " + chunk.size() + " records from this one not imported: " + e.getMessage(), chunk.size());
+        }
+        tally.chunks++;
+        chunk.clear();
+        tally.reportProgress();
+    }
+
+    /**
+     * Chunks already written stay committed whatever happens here, so a failure is logged rather
+     * than allowed to replace the import's own result or error.
+     */
+    private void finish(ChunkWriter<?> writer, Class<?> type) {
+        try {
+            writer.finish();
+        } catch (RuntimeException e) {
+            log.warn("Finishing the streamed import of {} records failed", type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Bean-validation violations of {@code record} as one message, or null when it is valid.
+     */
+    private <T> String validate(T record) {
+        if (record == null) {
+            return "Record is null";
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        Set<String> messages = new TreeSet<>();
+        for (ConstraintViolation<T> violation : violations) {
+            messages.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return String.join("; ", messages);
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+        /**
+         * Writes one chunk of valid records.
+         *
+         * @return per record, why it was not stored, or null when it was; or null when all were stored
+         */
+        String[] write(List<T> chunk);
+
+        /**
+         * Called once after the last chunk, including when the import stops early.
+         */
+        default void finish() {
+        }
+    }
+
+    private final class Tally {
+        private final String type;
+        private final long start = System.nanoTime();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+        private int chunks;
+        private boolean errorsTruncated;
+        private long nextProgress = progressInterval;
+
+        private Tally(String type) {
+            this.type = type;
+        }
+
+        private void reject(long index, int line, String error, int records) {
+            rejected += records;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportError(index, line, error));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        private void reportProgress() {
+            if (progressInterval > 0 && imported + rejected >= nextProgress) {
+                log.info("Import of {} records: {} received, {} imported, {} rejected ({} rows/s)", type,
+                        imported + rejected, imported, rejected, Math.round(rowsPerSecond(System.nanoTime() - start)));
+                nextProgress = (imported + rejected) / progressInterval * progressInterval + progressInterval;
+            }
+        }
+
+        private double rowsPerSecond(long nanos) {
+            return nanos > 0 ? imported * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+        }
+
+        private ImportResult toResult() {
+            long nanos = System.nanoTime() - start;
+            return new ImportResult(imported + rejected, imported, rejected, chunks, errors, errorsTruncated,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), rowsPerSecond(nanos));
+        }
+    }
+}
@@ -9,10 +9,15 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", uniqueConstraints =
+        @UniqueConstraint(name = Order.IDEMPOTENCY_KEY_CONSTRAINT, columnNames = "idempotency_key"))
 @Data
 public class Order {
 
+    public static final String IDEMPOTENCY_KEY_CONSTRAINT = "uk_orders_idempotency_key";
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_CONFIRMED = "CONFIRMED";
+
     @Id
     @GeneratedValue
     private UUID id;
@@ -32,6 +37,6 @@ public class Order {
 
     public Order() {
         this.orderDate = LocalDateTime.now();
-        this.status = "CONFIRMED";
+        this.status = STATUS_CONFIRMED;
     }
 }
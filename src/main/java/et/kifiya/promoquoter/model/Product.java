@@ -12,7 +12,7 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = @Index(name = "idx_product_category_id", columnList = "category, id"))
 @Data
 public class Product {
     @Id
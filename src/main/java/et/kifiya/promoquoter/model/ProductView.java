@@ -0,0 +1,35 @@
+package et.kifiya.promoquoter.model;
+
+import et.kifiya.promoquoter.enums.Category;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Immutable catalog data of a product. Stock is deliberately absent so that stock movements never
+ * invalidate cached views.
+ */
+public record ProductView(UUID id, String name, Category category, BigDecimal price, Long version) {
+
+    public static ProductView from(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getVersion());
+    }
+
+    public boolean hasSameCatalogData(Product product) {
+        return Objects.equals(name, product.getName())
+                && category == product.getCategory()
+                && Objects.equals(price, product.getPrice());
+    }
+
+    public boolean hasSameCatalogData(ProductView other) {
+        return Objects.equals(name, other.name())
+                && category == other.category()
+                && Objects.equals(price, other.price());
+    }
+
+    public ProductView withVersion(Long newVersion) {
+        return new ProductView(id, name, category, price, newVersion);
+    }
+}
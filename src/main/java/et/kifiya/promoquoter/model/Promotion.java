@@ -12,7 +12,7 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "promotion")
+@Table(name = "promotion", indexes = @Index(name = "idx_promotion_type_id", columnList = "type, id"))
 @Data
 public class Promotion {
     @Id
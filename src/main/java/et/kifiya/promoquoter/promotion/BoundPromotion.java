@@ -0,0 +1,40 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.model.Promotion;
+
+public final class BoundPromotion {
+
+    private final Promotion promotion;
+    private final PromotionStrategy strategy;
+    private final int rank;
+    private final Category category;
+
+    public BoundPromotion(Promotion promotion, PromotionStrategy strategy, int rank, Category category) {
+        this.promotion = promotion;
+        this.strategy = strategy;
+        this.rank = rank;
+        this.category = category;
+    }
+
+    public Promotion getPromotion() {
+        return promotion;
+    }
+
+    public PromotionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * The promotion's category as the enum, resolved when the index was compiled; null when it names
+     * no known category.
+     */
+    public Category getCategory() {
+        return category;
+    }
+}
@@ -2,18 +2,21 @@ package et.kifiya.promoquoter.promotion;
 
 
 import et.kifiya.promoquoter.enums.PromotionType;
-import et.kifiya.promoquoter.model.Product;
 import et.kifiya.promoquoter.model.Promotion;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.util.Map;
 
 @Component
 @Slf4j
 public class BuyXGetYStrategy implements PromotionStrategy {
 
+    @Override
+    public PromotionType getType() {
+        return PromotionType.BUY_X_GET_Y;
+    }
+
     @Override
     public boolean supports(Promotion promotion) {
         boolean supports = promotion.getType() == PromotionType.BUY_X_GET_Y
@@ -27,42 +30,78 @@ public class BuyXGetYStrategy implements PromotionStrategy {
     }
 
     @Override
-    public PromotionResult apply(Promotion promotion, Map<String, Product> products,
-                                 Map<String, Integer> cartItems) {
+    public String getRequirements() {
+        return "productId, and buyQuantity and getQuantity greater than zero, are required";
+    }
+
+    @Override
+    public PromotionResult apply(Promotion promotion, CartLines cart, PromotionTrace trace) {
 
-        String targetProductId = promotion.getProductId().toString();
-        Integer quantityInCart = cartItems.get(targetProductId);
+        int line = cart.indexOf(promotion.getProductId());
 
-        if (quantityInCart == null || quantityInCart < promotion.getBuyQuantity()) {
-            return new PromotionResult(BigDecimal.ZERO, "");
+        if (line < 0) {
+            if (trace != null) {
+                trace.reason("Target product " + promotion.getProductId() + " is not in the cart");
+            }
+            return PromotionResult.NONE;
+        }
+        if (trace != null) {
+            trace.touched(cart.productKey(line));
+        }
+        int quantityInCart = cart.quantity(line);
+        if (quantityInCart < promotion.getBuyQuantity()) {
+            if (trace != null) {
+                trace.reason(String.format("Quantity %d is below the buy quantity %d",
+                        quantityInCart, promotion.getBuyQuantity()));
+            }
+            return PromotionResult.NONE;
         }
 
-        Product product = products.get(targetProductId);
-        if (product == null || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            return new PromotionResult(BigDecimal.ZERO, "");
+        if (!cart.hasProduct(line) || !hasPositivePrice(cart, line)) {
+            if (trace != null) {
+                trace.reason("Target product has no positive price");
+            }
+            return PromotionResult.NONE;
         }
         int totalRequiredForOneFreeSet = promotion.getBuyQuantity() + promotion.getGetQuantity();
         int freeSets = quantityInCart / totalRequiredForOneFreeSet;
 
         if (freeSets == 0) {
-            return new PromotionResult(BigDecimal.ZERO, "");
+            if (trace != null) {
+                trace.reason(String.format("Quantity %d does not complete one set of %d",
+                        quantityInCart, totalRequiredForOneFreeSet));
+            }
+            return PromotionResult.NONE;
+        }
+
+        String description = buildDescription(cart.productName(line), promotion, freeSets);
+        if (trace != null) {
+            trace.reason(String.format("%d complete set(s) of %d in quantity %d",
+                    freeSets, totalRequiredForOneFreeSet, quantityInCart));
         }
+        return calculateDiscount(cart, line, freeSets * promotion.getGetQuantity(), description);
+    }
 
-        BigDecimal discount = calculateDiscount(product, freeSets, promotion.getGetQuantity());
-        String description = buildDescription(product, promotion, freeSets);
-        return new PromotionResult(discount, description);
+    private boolean hasPositivePrice(CartLines cart, int line) {
+        return cart.hasMinorUnitPrices()
+                ? cart.unitPriceMinor(line) > 0
+                : cart.unitPrice(line).compareTo(BigDecimal.ZERO) > 0;
     }
 
-    private BigDecimal calculateDiscount(Product product, int freeSets, int getQuantity) {
-        return product.getPrice().multiply(BigDecimal.valueOf(freeSets * getQuantity));
+    private PromotionResult calculateDiscount(CartLines cart, int line, int freeItems, String description) {
+        if (cart.hasMinorUnitPrices()) {
+            try {
+                return new PromotionResult(Money.times(cart.unitPriceMinor(line), freeItems), description);
+            } catch (ArithmeticException e) {
+                // overflows a long; BigDecimal below gives the exact result
+            }
+        }
+        return new PromotionResult(cart.unitPrice(line).multiply(BigDecimal.valueOf(freeItems)), description);
     }
 
-    private String buildDescription(Product product, Promotion promotion, int freeSets) {
-        return String.format("Buy %d Get %d Free - %s (%d free items)",
-                promotion.getBuyQuantity(),
-                promotion.getGetQuantity(),
-                product.getName(),
-                freeSets * promotion.getGetQuantity());
+    private String buildDescription(String productName, Promotion promotion, int freeSets) {
+        return "Buy " + promotion.getBuyQuantity() + " Get " + promotion.getGetQuantity() + " Free - "
+                + productName + " (" + freeSets * promotion.getGetQuantity() + " free items)";
     }
 }
 
@@ -0,0 +1,284 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.enums.Category;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+
+/**
+ * Per-category rollups of one cart, computed once when the cart is built and shared by every
+ * strategy evaluated against it. A category promotion looks up its rollup by enum instead of
+ * scanning every line and comparing category names. Large carts are grouped and summed in
+ * parallel chunks; every sum is exact, so the result is the same as the single pass.
+ */
+public final class CartAnalysis {
+
+    private static final Category[] CATEGORIES = Category.values();
+    // per-chunk slots: one per category, then one for lines without a category
+    private static final int UNCATEGORISED = CATEGORIES.length;
+    private static final int SLOTS = CATEGORIES.length + 1;
+
+    private final EnumMap<Category, CategoryRollup> byCategory;
+    private final Category[] categories;
+    private final BigDecimal subtotal;
+
+    private CartAnalysis(EnumMap<Category, CategoryRollup> byCategory, Category[] categories, BigDecimal subtotal) {
+        this.byCategory = byCategory;
+        this.categories = categories;
+        this.subtotal = subtotal;
+    }
+
+    static CartAnalysis of(CartLines cart) {
+        LargeCartMode mode = cart.largeCartMode();
+        int chunks = mode.chunkCount(cart.size(), mode.getChunkLines());
+        return chunks == 1 ? sequential(cart) : parallel(cart, mode, chunks);
+    }
+
+    private static CartAnalysis sequential(CartLines cart) {
+        int[] lineCounts = new int[CATEGORIES.length];
+        int present = 0;
+        int uncategorised = 0;
+        for (int line = 0; line < cart.size(); line++) {
+            Category category = cart.category(line);
+            if (category == null) {
+                uncategorised++;
+            } else if (lineCounts[category.ordinal()]++ == 0) {
+                present++;
+            }
+        }
+
+        int[][] lines = new int[CATEGORIES.length][];
+        Category[] categories = new Category[present];
+        for (int ordinal = 0, next = 0; ordinal < CATEGORIES.length; ordinal++) {
+            if (lineCounts[ordinal] > 0) {
+                lines[ordinal] = new int[lineCounts[ordinal]];
+                categories[next++] = CATEGORIES[ordinal];
+            }
+        }
+        int[] filled = new int[CATEGORIES.length];
+        int[] uncategorisedLines = new int[uncategorised];
+        for (int line = 0, next = 0; line < cart.size(); line++) {
+            Category category = cart.category(line);
+            if (category != null) {
+                lines[category.ordinal()][filled[category.ordinal()]++] = line;
+            } else {
+                uncategorisedLines[next++] = line;
+            }
+        }
+
+        EnumMap<Category, CategoryRollup> byCategory = new EnumMap<>(Category.class);
+        BigDecimal subtotal = uncategorised > 0 ? CategoryRollup.subtotal(cart, uncategorisedLines) : BigDecimal.ZERO;
+        for (Category category : categories) {
+            CategoryRollup rollup = CategoryRollup.of(cart, lines[category.ordinal()]);
+            byCategory.put(category, rollup);
+            subtotal = subtotal.add(rollup.getSubtotal());
+        }
+        return new CartAnalysis(byCategory, categories, subtotal.setScale(Money.SCALE, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Each chunk counts its lines per category; prefix sums over the chunks, in chunk order, then give
+     * every chunk its write offsets, so the per-category line lists come out in cart order.
+     */
+    private static CartAnalysis parallel(CartLines cart, LargeCartMode mode, int chunks) {
+        int chunkLines = mode.getChunkLines();
+        int[] counts = new int[chunks * SLOTS];
+        long[] quantities = new long[chunks * SLOTS];
+        mode.forEachChunk(cart.size(), chunkLines, (chunk, from, to) -> {
+            int base = chunk * SLOTS;
+            for (int line = from; line < to; line++) {
+                int slot = base + slotOf(cart.category(line));
+                counts[slot]++;
+                quantities[slot] += cart.quantity(line);
+            }
+        });
+
+        int[] totals = new int[SLOTS];
+        long[] totalQuantities = new long[SLOTS];
+        int[] offsets = new int[chunks * SLOTS];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                offsets[chunk * SLOTS + slot] = totals[slot];
+                totals[slot] += counts[chunk * SLOTS + slot];
+                totalQuantities[slot] += quantities[chunk * SLOTS + slot];
+            }
+        }
+        int[][] lines = new int[SLOTS][];
+        int present = 0;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            lines[slot] = new int[totals[slot]];
+            if (slot != UNCATEGORISED && totals[slot] > 0) {
+                present++;
+            }
+        }
+        mode.forEachChunk(cart.size(), chunkLines, (chunk, from, to) -> {
+            int[] next = new int[SLOTS];
+            System.arraycopy(offsets, chunk * SLOTS, next, 0, SLOTS);
+            for (int line = from; line < to; line++) {
+                int slot = slotOf(cart.category(line));
+                lines[slot][next[slot]++] = line;
+            }
+        });
+
+        Category[] categories = new Category[present];
+        for (int ordinal = 0, next = 0; ordinal < CATEGORIES.length; ordinal++) {
+            if (totals[ordinal] > 0) {
+                categories[next++] = CATEGORIES[ordinal];
+            }
+        }
+        // one task per category; a large category splits its own sum further
+        CategoryRollup[] rollups = new CategoryRollup[categories.length];
+        mode.forEachChunk(categories.length, 1, (chunk, from, to) -> {
+            int ordinal = categories[chunk].ordinal();
+            rollups[chunk] = new CategoryRollup(lines[ordinal], totalQuantities[ordinal],
+                    CategoryRollup.subtotal(cart, lines[ordinal], mode));
+        });
+
+        EnumMap<Category, CategoryRollup> byCategory = new EnumMap<>(Category.class);
+        BigDecimal subtotal = totals[UNCATEGORISED] > 0
+                ? CategoryRollup.subtotal(cart, lines[UNCATEGORISED], mode) : BigDecimal.ZERO;
+        for (int i = 0; i < categories.length; i++) {
+            byCategory.put(categories[i], rollups[i]);
+            subtotal = subtotal.add(rollups[i].getSubtotal());
+        }
+        return new CartAnalysis(byCategory, categories, subtotal.setScale(Money.SCALE, RoundingMode.HALF_UP));
+    }
+
+    private static int slotOf(Category category) {
+        return category != null ? category.ordinal() : UNCATEGORISED;
+    }
+
+    /**
+     * The rollup of {@code category}, or null when no line of the cart is in it.
+     */
+    public CategoryRollup category(Category category) {
+        return category != null ? byCategory.get(category) : null;
+    }
+
+    /**
+     * The categories present in the cart, in enum order.
+     */
+    public int categoryCount() {
+        return categories.length;
+    }
+
+    public Category categoryAt(int index) {
+        return categories[index];
+    }
+
+    /**
+     * Sum of all line totals, including lines without a category, rounded HALF_UP to scale 2.
+     */
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+
+    public static final class CategoryRollup {
+        private final int[] lines;
+        private final long quantity;
+        private final BigDecimal subtotal;
+
+        private CategoryRollup(int[] lines, long quantity, BigDecimal subtotal) {
+            this.lines = lines;
+            this.quantity = quantity;
+            this.subtotal = subtotal;
+        }
+
+        private static CategoryRollup of(CartLines cart, int[] lines) {
+            long quantity = 0;
+            for (int line : lines) {
+                quantity += cart.quantity(line);
+            }
+            return new CategoryRollup(lines, quantity, subtotal(cart, lines));
+        }
+
+        private static BigDecimal subtotal(CartLines cart, int[] lines) {
+            if (cart.hasMinorUnitPrices()) {
+                try {
+                    return Money.toBigDecimal(sumMinorUnits(cart, lines, 0, lines.length));
+                } catch (ArithmeticException e) {
+                    // overflows a long; summed in BigDecimal below
+                }
+            }
+            return sumDecimal(cart, lines, 0, lines.length);
+        }
+
+        /**
+         * Chunked {@link #subtotal(CartLines, int[])}: partial sums are merged in chunk order, and since
+         * every addition is exact the result, scale included, is the same.
+         */
+        private static BigDecimal subtotal(CartLines cart, int[] lines, LargeCartMode mode) {
+            int chunks = mode.chunkCount(lines.length, mode.getChunkLines());
+            if (chunks == 1) {
+                return subtotal(cart, lines);
+            }
+            if (cart.hasMinorUnitPrices()) {
+                try {
+                    long[] partials = new long[chunks];
+                    mode.forEachChunk(lines.length, mode.getChunkLines(),
+                            (chunk, from, to) -> partials[chunk] = sumMinorUnits(cart, lines, from, to));
+                    long subtotal = 0;
+                    for (long partial : partials) {
+                        subtotal = Math.addExact(subtotal, partial);
+                    }
+                    return Money.toBigDecimal(subtotal);
+                } catch (ArithmeticException e) {
+                    // overflows a long; summed in BigDecimal below
+                }
+            }
+            BigDecimal[] partials = new BigDecimal[chunks];
+            mode.forEachChunk(lines.length, mode.getChunkLines(),
+                    (chunk, from, to) -> partials[chunk] = sumDecimal(cart, lines, from, to));
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (BigDecimal partial : partials) {
+                subtotal = subtotal.add(partial);
+            }
+            return subtotal;
+        }
+
+        private static long sumMinorUnits(CartLines cart, int[] lines, int from, int to) {
+            long subtotal = 0;
+            for (int i = from; i < to; i++) {
+                int line = lines[i];
+                subtotal = Math.addExact(subtotal, Money.times(cart.unitPriceMinor(line), cart.quantity(line)));
+            }
+            return subtotal;
+        }
+
+        private static BigDecimal sumDecimal(CartLines cart, int[] lines, int from, int to) {
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int i = from; i < to; i++) {
+                int line = lines[i];
+                subtotal = subtotal.add(cart.unitPrice(line).multiply(BigDecimal.valueOf(cart.quantity(line))));
+            }
+            return subtotal;
+        }
+
+        /**
+         * Number of cart lines in the category.
+         */
+        public int size() {
+            return lines.length;
+        }
+
+        /**
+         * The cart line of the {@code index}-th line in this category, in cart order.
+         */
+        public int line(int index) {
+            return lines[index];
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * Unrounded sum of the category's line totals.
+         */
+        public BigDecimal getSubtotal() {
+            return subtotal;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.exception.ValidationException;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The cart as the promotion engine sees it. Each line gets a dense int id, its position here, and
+ * product name, category, price and quantity sit in parallel arrays indexed by it, so strategies walk
+ * the cart in plain loops. Lines are found by product id through an open-addressing table keyed on
+ * the UUID bits; no product id string is hashed or parsed while pricing. When every price has
+ * scale 2 the prices are also kept as {@link Money} minor units. Lines are filled from catalog
+ * {@link ProductView} records on the quote path and from managed entities on confirm; the cart
+ * keeps neither. Building a cart also runs its {@link CartAnalysis}, once, before any strategy sees
+ * it; a cart built with a {@link LargeCartMode} that applies to its size is analysed, and later
+ * evaluated, in parallel.
+ */
+public final class CartLines {
+
+    private final int size;
+    private final UUID[] productIds;
+    private final String[] productKeys;
+    private final boolean[] found;
+    private final String[] names;
+    private final Category[] categories;
+    private final BigDecimal[] unitPrices;
+    private final long[] unitPricesMinor;
+    private final boolean minorUnits;
+    private final int[] quantities;
+    // line + 1 per slot, 0 marks an empty slot
+    private final int[] slots;
+    private final LargeCartMode largeCartMode;
+    private final CartAnalysis analysis;
+
+    private CartLines(Builder builder, LargeCartMode largeCartMode) {
+        this.size = builder.size;
+        this.productIds = builder.productIds;
+        this.productKeys = builder.productKeys;
+        this.found = builder.found;
+        this.names = builder.names;
+        this.categories = builder.categories;
+        this.unitPrices = builder.unitPrices;
+        this.unitPricesMinor = builder.unitPricesMinor;
+        this.minorUnits = builder.minorUnits;
+        this.quantities = builder.quantities;
+        this.slots = builder.slots;
+        this.largeCartMode = largeCartMode.appliesTo(builder.size) ? largeCartMode : LargeCartMode.sequential();
+        this.analysis = null;
+    }
+
+    private CartLines(CartLines lines, CartAnalysis analysis) {
+        this.size = lines.size;
+        this.productIds = lines.productIds;
+        this.productKeys = lines.productKeys;
+        this.found = lines.found;
+        this.names = lines.names;
+        this.categories = lines.categories;
+        this.unitPrices = lines.unitPrices;
+        this.unitPricesMinor = lines.unitPricesMinor;
+        this.minorUnits = lines.minorUnits;
+        this.quantities = lines.quantities;
+        this.slots = lines.slots;
+        this.largeCartMode = lines.largeCartMode;
+        this.analysis = analysis;
+    }
+
+    /**
+     * The analysis, which may fan out to worker threads, reads a fully constructed cart; the cart
+     * handed out shares its arrays and holds the analysis in a final field.
+     */
+    private static CartLines analysed(Builder builder, LargeCartMode largeCartMode) {
+        CartLines lines = new CartLines(builder, largeCartMode);
+        return new CartLines(lines, CartAnalysis.of(lines));
+    }
+
+    public static Builder builder(int expectedLines) {
+        return new Builder(expectedLines);
+    }
+
+    /**
+     * Adapts the map-keyed cart representation: products and quantities keyed by product id string.
+     * Lines keep the iteration order of {@code cartItems}.
+     */
+    public static CartLines of(Map<String, Product> products, Map<String, Integer> cartItems) {
+        Builder builder = new Builder(cartItems.size());
+        for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
+            Product product = products.get(entry.getKey());
+            UUID productId = product != null ? product.getId() : parseOrNull(entry.getKey());
+            builder.add(entry.getKey(), productId, product, entry.getValue());
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID productId(int line) {
+        return productIds[line];
+    }
+
+    /**
+     * The product id exactly as the caller sent it.
+     */
+    public String productKey(int line) {
+        return productKeys[line];
+    }
+
+    /**
+     * Whether the line's product exists; lines of unknown products carry only their id and quantity.
+     */
+    public boolean hasProduct(int line) {
+        return found[line];
+    }
+
+    public String productName(int line) {
+        return names[line];
+    }
+
+    public Category category(int line) {
+        return categories[line];
+    }
+
+    public BigDecimal unitPrice(int line) {
+        return unitPrices[line];
+    }
+
+    /**
+     * Whether every line's price is held in minor units, so {@link #unitPriceMinor} is valid.
+     */
+    public boolean hasMinorUnitPrices() {
+        return minorUnits;
+    }
+
+    public long unitPriceMinor(int line) {
+        return unitPricesMinor[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    public CartAnalysis analysis() {
+        return analysis;
+    }
+
+    /**
+     * The mode to evaluate this cart with; {@link LargeCartMode#sequential()} unless the cart is large.
+     */
+    public LargeCartMode largeCartMode() {
+        return largeCartMode;
+    }
+
+    /**
+     * The line holding {@code productId}, or -1 when it is not in the cart.
+     */
+    public int indexOf(UUID productId) {
+        if (productId == null) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int slot = spread(productId) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (productId.equals(productIds[entry - 1])) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private static int spread(UUID productId) {
+        long bits = productId.getMostSignificantBits() ^ productId.getLeastSignificantBits();
+        int hash = (int) (bits ^ (bits >>> 32));
+        return hash ^ (hash >>> 16);
+    }
+
+    private static UUID parseOrNull(String productId) {
+        try {
+            return UUID.fromString(productId);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    public static final class Builder {
+        private int size;
+        private final UUID[] productIds;
+        private final String[] productKeys;
+        private final boolean[] found;
+        private final String[] names;
+        private final Category[] categories;
+        private final BigDecimal[] unitPrices;
+        private final long[] unitPricesMinor;
+        private boolean minorUnits = true;
+        private final int[] quantities;
+        private final int[] slots;
+
+        private Builder(int expectedLines) {
+            this.productIds = new UUID[expectedLines];
+            this.productKeys = new String[expectedLines];
+            this.found = new boolean[expectedLines];
+            this.names = new String[expectedLines];
+            this.categories = new Category[expectedLines];
+            this.unitPrices = new BigDecimal[expectedLines];
+            this.unitPricesMinor = new long[expectedLines];
+            this.quantities = new int[expectedLines];
+            // at most half full, so probes stay short
+            this.slots = new int[Integer.highestOneBit(Math.max(1, expectedLines) * 2 - 1) << 1];
+        }
+
+        public Builder add(String productKey, UUID productId, ProductView product, Integer quantity) {
+            return product != null
+                    ? add(productKey, productId, true, product.name(), product.category(), product.price(), quantity)
+                    : add(productKey, productId, false, null, null, null, quantity);
+        }
+
+        public Builder add(String productKey, UUID productId, Product product, Integer quantity) {
+            return product != null
+                    ? add(productKey, productId, true, product.getName(), product.getCategory(), product.getPrice(), quantity)
+                    : add(productKey, productId, false, null, null, null, quantity);
+        }
+
+        /**
+         * Adds the next line. A product may only appear once per cart.
+         *
+         * @throws ValidationException if {@code productId} already has a line
+         */
+        private Builder add(String productKey, UUID productId, boolean found, String name, Category category,
+                            BigDecimal unitPrice, Integer quantity) {
+            if (size == quantities.length) {
+                throw new IllegalStateException("Cart already holds the " + size + " expected lines");
+            }
+            int line = size;
+            if (productId != null) {
+                int mask = slots.length - 1;
+                int slot = spread(productId) & mask;
+                while (slots[slot] != 0) {
+                    int existing = slots[slot] - 1;
+                    if (productId.equals(productIds[existing])) {
+                        throw new ValidationException(
+                                "Product " + productKey + " appears more than once in the cart");
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = line + 1;
+            }
+            productIds[line] = productId;
+            productKeys[line] = productKey;
+            this.found[line] = found;
+            names[line] = name;
+            categories[line] = category;
+            unitPrices[line] = unitPrice;
+            if (minorUnits && Money.isMinorUnits(unitPrices[line])) {
+                unitPricesMinor[line] = Money.toMinorUnits(unitPrices[line]);
+            } else {
+                minorUnits = false;
+            }
+            quantities[line] = quantity;
+            size++;
+            return this;
+        }
+
+        public CartLines build() {
+            return build(LargeCartMode.sequential());
+        }
+
+        public CartLines build(LargeCartMode largeCartMode) {
+            return analysed(this, largeCartMode);
+        }
+    }
+}
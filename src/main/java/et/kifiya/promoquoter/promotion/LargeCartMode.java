@@ -0,0 +1,137 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join evaluation for carts above a line threshold. Work is cut into chunks whose boundaries
+ * depend only on the element count and chunk size, each chunk writes to its own slot, and callers
+ * merge the slots in index order, so results never depend on scheduling and are identical to a
+ * single pass. Below the threshold, or in {@link #sequential()} mode, every loop runs inline.
+ */
+@Component
+public class LargeCartMode {
+
+    private static final LargeCartMode SEQUENTIAL = new LargeCartMode();
+
+    private final int threshold;
+    private final int chunkLines;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public LargeCartMode(@Value("${promoquoter.large-cart.threshold:2000}") int threshold,
+                         @Value("${promoquoter.large-cart.parallelism:0}") int parallelism,
+                         @Value("${promoquoter.large-cart.chunk-lines:512}") int chunkLines) {
+        if (threshold < 1 || chunkLines < 1) {
+            throw new IllegalArgumentException("Large-cart threshold and chunk size must be positive");
+        }
+        this.threshold = threshold;
+        this.chunkLines = chunkLines;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("large-cart-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    private LargeCartMode() {
+        this.threshold = Integer.MAX_VALUE;
+        this.chunkLines = Integer.MAX_VALUE;
+        this.pool = null;
+    }
+
+    /**
+     * Runs everything on the calling thread.
+     */
+    public static LargeCartMode sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Whether a cart of {@code lines} lines is evaluated in parallel.
+     */
+    public boolean appliesTo(int lines) {
+        return pool != null && lines >= threshold;
+    }
+
+    public int getChunkLines() {
+        return chunkLines;
+    }
+
+    /**
+     * Number of chunks {@link #forEachChunk} splits {@code count} elements into; at least one.
+     */
+    public int chunkCount(int count, int chunkSize) {
+        return pool == null || count <= chunkSize ? 1 : (count + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Runs {@code action} once per chunk of {@code [0, count)} and returns when all chunks are done.
+     * A single chunk runs on the calling thread. An exception thrown by a chunk is rethrown here.
+     */
+    public void forEachChunk(int count, int chunkSize, ChunkAction action) {
+        int chunks = chunkCount(count, chunkSize);
+        if (chunks == 1) {
+            if (count > 0) {
+                action.run(0, 0, count);
+            }
+            return;
+        }
+        ChunkTask task = new ChunkTask(count, chunkSize, action, 0, chunks);
+        if (ForkJoinTask.getPool() == pool) {
+            // already on one of our workers, e.g. a strategy chunking inside a parallel evaluation
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkAction {
+        void run(int chunk, int from, int to);
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private final int count;
+        private final int chunkSize;
+        private final ChunkAction action;
+        private final int fromChunk;
+        private final int toChunk;
+
+        private ChunkTask(int count, int chunkSize, ChunkAction action, int fromChunk, int toChunk) {
+            this.count = count;
+            this.chunkSize = chunkSize;
+            this.action = action;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (toChunk - fromChunk == 1) {
+                int from = fromChunk * chunkSize;
+                action.run(fromChunk, from, (int) Math.min((long) from + chunkSize, count));
+                return;
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            invokeAll(new ChunkTask(count, chunkSize, action, fromChunk, middle),
+                    new ChunkTask(count, chunkSize, action, middle, toChunk));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import java.math.BigDecimal;
+
+/**
+ * Money as a long count of minor units (cents, scale 2). Results are bit-for-bit equal to the
+ * BigDecimal arithmetic they replace, including scale, as long as every input amount already has
+ * scale 2. Anything that cannot be represented exactly, or would overflow, throws
+ * {@link ArithmeticException}; callers then redo the calculation in BigDecimal.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+            100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    private Money() {
+    }
+
+    /**
+     * Whether {@code amount} has exactly scale 2 and fits a long, so minor units represent it
+     * without changing its value or its scale.
+     */
+    public static boolean isMinorUnits(BigDecimal amount) {
+        return amount != null && amount.scale() == SCALE && amount.precision() < 19;
+    }
+
+    /**
+     * @throws ArithmeticException if {@code amount} is not {@linkplain #isMinorUnits minor units}
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (!isMinorUnits(amount)) {
+            throw new ArithmeticException("Not representable in minor units: " + amount);
+        }
+        return amount.unscaledValue().longValue();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long times(long minorUnits, int quantity) {
+        return Math.multiplyExact(minorUnits, quantity);
+    }
+
+    /**
+     * {@code amount * percent / 100} rounded HALF_UP to minor units, where {@code percent} is
+     * {@code percentUnscaled * 10^-percentScale}. Same result as
+     * {@code amount.multiply(percent).divide(100, 2, HALF_UP)}.
+     */
+    public static long percentOf(long minorUnits, long percentUnscaled, int percentScale) {
+        if (percentScale < 0 || percentScale + 2 >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("Percent scale out of range: " + percentScale);
+        }
+        long numerator = Math.multiplyExact(minorUnits, percentUnscaled);
+        return divideHalfUp(numerator, POWERS_OF_TEN[percentScale + 2]);
+    }
+
+    /**
+     * Rounds {@code numerator / denominator} half away from zero; {@code denominator} is positive
+     * and even, so half of it is exact.
+     */
+    private static long divideHalfUp(long numerator, long denominator) {
+        long half = denominator / 2;
+        if (numerator >= 0) {
+            return Math.addExact(numerator, half) / denominator;
+        }
+        return -(Math.addExact(Math.negateExact(numerator), half) / denominator);
+    }
+}
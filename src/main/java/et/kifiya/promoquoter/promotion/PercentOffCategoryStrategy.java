@@ -1,15 +1,14 @@
 package et.kifiya.promoquoter.promotion;
 
 
+import et.kifiya.promoquoter.enums.Category;
 import et.kifiya.promoquoter.enums.PromotionType;
-import et.kifiya.promoquoter.model.Product;
 import et.kifiya.promoquoter.model.Promotion;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Map;
 
 @Component
 @Slf4j
@@ -17,57 +16,191 @@ public class PercentOffCategoryStrategy implements PromotionStrategy {
 
     private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
 
+    @Override
+    public PromotionType getType() {
+        return PromotionType.PERCENT_OFF_CATEGORY;
+    }
+
     @Override
     public boolean supports(Promotion promotion) {
         boolean supports = promotion.getType() == PromotionType.PERCENT_OFF_CATEGORY
-                && promotion.getCategory() != null
+                && Category.fromName(promotion.getCategory()) != null
                 && promotion.getDiscountPercent() != null
                 && promotion.getDiscountPercent().compareTo(BigDecimal.ZERO) > 0;
         return supports;
     }
 
     @Override
-    public PromotionResult apply(Promotion promotion, Map<String, Product> products,
-                                 Map<String, Integer> cartItems) {
+    public String getRequirements() {
+        return "a known category and a discountPercent greater than zero are required";
+    }
+
+    @Override
+    public PromotionResult apply(Promotion promotion, CartLines cart, PromotionTrace trace) {
+        return apply(promotion, Category.fromName(promotion.getCategory()), cart, trace);
+    }
+
+    /**
+     * Uses the category resolved when the index was compiled.
+     */
+    @Override
+    public PromotionResult apply(BoundPromotion bound, CartLines cart, PromotionTrace trace) {
+        return apply(bound.getPromotion(), bound.getCategory(), cart, trace);
+    }
+
+    // the lines themselves are found through the category rollup
+    private PromotionResult apply(Promotion promotion, Category category, CartLines cart, PromotionTrace trace) {
+        CartAnalysis.CategoryRollup rollup = category != null ? cart.analysis().category(category) : null;
+        if (rollup == null) {
+            return noEligibleLines(promotion, trace);
+        }
+        if (cart.hasMinorUnitPrices()) {
+            try {
+                return applyMinorUnits(promotion, cart, rollup, trace);
+            } catch (ArithmeticException e) {
+                // a line overflows a long; BigDecimal below gives the exact result
+            }
+        }
+        return applyDecimal(promotion, cart, rollup, trace);
+    }
+
+    /**
+     * Discounts are rounded per line, as in the BigDecimal path, so the category's lines are still
+     * visited one by one; the rollup only saves finding them. In a large cart the lines are split into
+     * chunks whose exact partial sums are added in chunk order.
+     */
+    private PromotionResult applyMinorUnits(Promotion promotion, CartLines cart,
+                                            CartAnalysis.CategoryRollup rollup, PromotionTrace trace) {
+        BigDecimal percent = promotion.getDiscountPercent();
+        long percentUnscaled = percent.unscaledValue().longValueExact();
+        LargeCartMode mode = cart.largeCartMode();
+        int chunks = mode.chunkCount(rollup.size(), mode.getChunkLines());
+        long totalDiscount = 0;
+        int affectedItems = 0;
+
+        if (chunks == 1) {
+            for (int i = 0; i < rollup.size(); i++) {
+                int line = rollup.line(i);
+                if (hasPositivePrice(cart, line)) {
+                    totalDiscount = Math.addExact(totalDiscount, discountMinorUnits(cart, line, percentUnscaled, percent.scale()));
+                    affectedItems++;
+                }
+            }
+        } else {
+            long[] discounts = new long[chunks];
+            int[] affected = new int[chunks];
+            mode.forEachChunk(rollup.size(), mode.getChunkLines(), (chunk, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int line = rollup.line(i);
+                    if (hasPositivePrice(cart, line)) {
+                        discounts[chunk] = Math.addExact(discounts[chunk],
+                                discountMinorUnits(cart, line, percentUnscaled, percent.scale()));
+                        affected[chunk]++;
+                    }
+                }
+            });
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                totalDiscount = Math.addExact(totalDiscount, discounts[chunk]);
+                affectedItems += affected[chunk];
+            }
+        }
+
+        if (affectedItems == 0) {
+            return noEligibleLines(promotion, trace);
+        }
+        traceEligibleLines(promotion, cart, rollup, affectedItems, trace);
+        return new PromotionResult(totalDiscount, buildDescription(promotion, affectedItems));
+    }
+
+    private PromotionResult applyDecimal(Promotion promotion, CartLines cart,
+                                         CartAnalysis.CategoryRollup rollup, PromotionTrace trace) {
+        LargeCartMode mode = cart.largeCartMode();
+        int chunks = mode.chunkCount(rollup.size(), mode.getChunkLines());
         BigDecimal totalDiscount = BigDecimal.ZERO;
-        StringBuilder description = new StringBuilder();
         int affectedItems = 0;
 
-        for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
-            String productId = entry.getKey();
-            Integer quantity = entry.getValue();
-            Product product = products.get(productId);
-
-            if (isProductEligible(product, promotion)) {
-                BigDecimal itemTotal = calculateItemTotal(product, quantity);
-                BigDecimal discount = calculateDiscount(itemTotal, promotion.getDiscountPercent());
-                totalDiscount = totalDiscount.add(discount);
-                affectedItems++;
-
-                if (description.length() == 0) {
-                    description.append(String.format("%s%% off %s category",
-                            promotion.getDiscountPercent().setScale(0, RoundingMode.HALF_UP),
-                            promotion.getCategory()));
+        if (chunks == 1) {
+            for (int i = 0; i < rollup.size(); i++) {
+                int line = rollup.line(i);
+                if (hasPositivePrice(cart, line)) {
+                    totalDiscount = totalDiscount.add(discountDecimal(cart, line, promotion.getDiscountPercent()));
+                    affectedItems++;
+                }
+            }
+        } else {
+            BigDecimal[] discounts = new BigDecimal[chunks];
+            int[] affected = new int[chunks];
+            mode.forEachChunk(rollup.size(), mode.getChunkLines(), (chunk, from, to) -> {
+                BigDecimal discount = BigDecimal.ZERO;
+                for (int i = from; i < to; i++) {
+                    int line = rollup.line(i);
+                    if (hasPositivePrice(cart, line)) {
+                        discount = discount.add(discountDecimal(cart, line, promotion.getDiscountPercent()));
+                        affected[chunk]++;
+                    }
                 }
+                discounts[chunk] = discount;
+            });
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                totalDiscount = totalDiscount.add(discounts[chunk]);
+                affectedItems += affected[chunk];
             }
         }
 
-        if (affectedItems > 0) {
-            description.append(String.format(" (applied to %d items)", affectedItems));
+        if (affectedItems == 0) {
+            return noEligibleLines(promotion, trace);
+        }
+        traceEligibleLines(promotion, cart, rollup, affectedItems, trace);
+        return new PromotionResult(totalDiscount, buildDescription(promotion, affectedItems));
+    }
+
+    private static long discountMinorUnits(CartLines cart, int line, long percentUnscaled, int percentScale) {
+        long itemTotal = Money.times(cart.unitPriceMinor(line), cart.quantity(line));
+        return Money.percentOf(itemTotal, percentUnscaled, percentScale);
+    }
+
+    private BigDecimal discountDecimal(CartLines cart, int line, BigDecimal discountPercent) {
+        return calculateDiscount(calculateItemTotal(cart.unitPrice(line), cart.quantity(line)), discountPercent);
+    }
+
+    private PromotionResult noEligibleLines(Promotion promotion, PromotionTrace trace) {
+        if (trace != null) {
+            trace.reason("No line in category " + promotion.getCategory() + " with a positive price");
         }
+        return PromotionResult.NONE;
+    }
 
+    /**
+     * Traced after the arithmetic succeeded, so a fallback to BigDecimal never reports a line twice.
+     */
+    private void traceEligibleLines(Promotion promotion, CartLines cart, CartAnalysis.CategoryRollup rollup,
+                                    int affectedItems, PromotionTrace trace) {
+        if (trace == null) {
+            return;
+        }
+        for (int i = 0; i < rollup.size(); i++) {
+            int line = rollup.line(i);
+            if (hasPositivePrice(cart, line)) {
+                trace.touched(cart.productKey(line));
+            }
+        }
+        trace.reason(affectedItems + " line(s) in category " + promotion.getCategory());
+    }
 
-        return new PromotionResult(totalDiscount, description.toString());
+    // only built for promotions that fire
+    private String buildDescription(Promotion promotion, int affectedItems) {
+        return promotion.getDiscountPercent().setScale(0, RoundingMode.HALF_UP).toPlainString()
+                + "% off " + promotion.getCategory() + " category (applied to " + affectedItems + " items)";
     }
 
-    private boolean isProductEligible(Product product, Promotion promotion) {
-        return product != null
-                && product.getCategory().name().equals(promotion.getCategory())
-                && product.getPrice().compareTo(BigDecimal.ZERO) > 0;
+    private boolean hasPositivePrice(CartLines cart, int line) {
+        return cart.hasMinorUnitPrices()
+                ? cart.unitPriceMinor(line) > 0
+                : cart.unitPrice(line).compareTo(BigDecimal.ZERO) > 0;
     }
 
-    private BigDecimal calculateItemTotal(Product product, Integer quantity) {
-        return product.getPrice().multiply(BigDecimal.valueOf(quantity));
+    private BigDecimal calculateItemTotal(BigDecimal unitPrice, int quantity) {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
     }
 
     private BigDecimal calculateDiscount(BigDecimal itemTotal, BigDecimal discountPercent) {
@@ -0,0 +1,155 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Promotion;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the active promotions, compiled once per promotion-set version.
+ * BUY_X_GET_Y rules are keyed by product and PERCENT_OFF_CATEGORY rules by category, each list
+ * already in priority order, so a quote only visits promotions that can fire for its lines.
+ */
+@Slf4j
+public final class PromotionIndex {
+
+    private static final Comparator<Promotion> PRIORITY_ORDER =
+            Comparator.comparing(Promotion::getPriority, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<BoundPromotion> RANK_ORDER = Comparator.comparingInt(BoundPromotion::getRank);
+
+    private final long version;
+    private final int size;
+    private final List<Promotion> promotions;
+    private final Map<UUID, List<BoundPromotion>> byProduct;
+    private final Map<Category, List<BoundPromotion>> byCategory;
+    private final List<BoundPromotion> unkeyed;
+
+    private PromotionIndex(long version, int size, List<Promotion> promotions,
+                           Map<UUID, List<BoundPromotion>> byProduct,
+                           Map<Category, List<BoundPromotion>> byCategory,
+                           List<BoundPromotion> unkeyed) {
+        this.version = version;
+        this.size = size;
+        this.promotions = promotions;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.unkeyed = unkeyed;
+    }
+
+    public static PromotionIndex compile(long version, List<Promotion> promotions,
+                                         List<PromotionStrategy> strategies) {
+        return compile(version, promotions, PromotionStrategies.of(strategies));
+    }
+
+    /**
+     * Binds every active promotion to its strategy by type. Promotions that cannot be bound are left
+     * out of the snapshot and logged here, once per compile, rather than on every quote.
+     */
+    public static PromotionIndex compile(long version, List<Promotion> promotions,
+                                         PromotionStrategies strategies) {
+        List<Promotion> sorted = new ArrayList<>(promotions.size());
+        for (Promotion promotion : promotions) {
+            if (promotion.isActive()) {
+                sorted.add(promotion);
+            }
+        }
+        sorted.sort(PRIORITY_ORDER);
+
+        Map<UUID, List<BoundPromotion>> byProduct = new HashMap<>();
+        Map<Category, List<BoundPromotion>> byCategory = new EnumMap<>(Category.class);
+        List<BoundPromotion> unkeyed = new ArrayList<>();
+        int rank = 0;
+
+        for (Promotion promotion : sorted) {
+            PromotionStrategy strategy = strategies.bind(promotion);
+            if (strategy == null) {
+                log.warn("Skipping promotion {}: {}", promotion.getId(), strategies.validate(promotion));
+                continue;
+            }
+
+            Category category = Category.fromName(promotion.getCategory());
+            BoundPromotion bound = new BoundPromotion(promotion, strategy, rank++, category);
+            if (promotion.getType() == PromotionType.BUY_X_GET_Y && promotion.getProductId() != null) {
+                byProduct.computeIfAbsent(promotion.getProductId(), id -> new ArrayList<>()).add(bound);
+            } else if (promotion.getType() == PromotionType.PERCENT_OFF_CATEGORY && category != null) {
+                byCategory.computeIfAbsent(category, c -> new ArrayList<>()).add(bound);
+            } else {
+                unkeyed.add(bound);
+            }
+        }
+
+        return new PromotionIndex(version, rank, Collections.unmodifiableList(sorted), byProduct, byCategory, unkeyed);
+    }
+
+    /**
+     * Promotions that can fire for the given cart, in priority order. The rule lists are visited
+     * twice, once to size the result exactly and once to fill it.
+     */
+    public List<BoundPromotion> candidates(CartLines cart) {
+        CartAnalysis analysis = cart.analysis();
+        int count = unkeyed.size();
+        for (int line = 0; line < cart.size(); line++) {
+            if (!cart.hasProduct(line)) {
+                continue;
+            }
+            List<BoundPromotion> productRules = byProduct.get(cart.productId(line));
+            if (productRules != null) {
+                count += productRules.size();
+            }
+        }
+        for (int i = 0; i < analysis.categoryCount(); i++) {
+            List<BoundPromotion> categoryRules = byCategory.get(analysis.categoryAt(i));
+            if (categoryRules != null) {
+                count += categoryRules.size();
+            }
+        }
+
+        List<BoundPromotion> candidates = new ArrayList<>(count);
+        append(candidates, unkeyed);
+        for (int line = 0; line < cart.size(); line++) {
+            if (!cart.hasProduct(line)) {
+                continue;
+            }
+            List<BoundPromotion> productRules = byProduct.get(cart.productId(line));
+            if (productRules != null) {
+                append(candidates, productRules);
+            }
+        }
+        for (int i = 0; i < analysis.categoryCount(); i++) {
+            List<BoundPromotion> categoryRules = byCategory.get(analysis.categoryAt(i));
+            if (categoryRules != null) {
+                append(candidates, categoryRules);
+            }
+        }
+
+        candidates.sort(RANK_ORDER);
+        return candidates;
+    }
+
+    /**
+     * Element-wise append; {@code addAll} would copy every rule list through {@code toArray()}.
+     */
+    private static void append(List<BoundPromotion> target, List<BoundPromotion> rules) {
+        for (int i = 0; i < rules.size(); i++) {
+            target.add(rules.get(i));
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The active promotions this snapshot was compiled from, in priority order.
+     */
+    public List<Promotion> getPromotions() {
+        return promotions;
+    }
+}
@@ -0,0 +1,74 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Promotion;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * The strategy for each {@link PromotionType}, looked up by enum. Promotions are bound to their
+ * strategy once, when a promotion set is compiled or a promotion is created, never per quote.
+ */
+public final class PromotionStrategies {
+
+    private final EnumMap<PromotionType, PromotionStrategy> byType;
+
+    private PromotionStrategies(EnumMap<PromotionType, PromotionStrategy> byType) {
+        this.byType = byType;
+    }
+
+    /**
+     * @throws IllegalStateException if a strategy declares no type, two strategies declare the same
+     *                               one, or a promotion type is left without a strategy
+     */
+    public static PromotionStrategies of(List<PromotionStrategy> strategies) {
+        EnumMap<PromotionType, PromotionStrategy> byType = new EnumMap<>(PromotionType.class);
+        for (PromotionStrategy strategy : strategies) {
+            PromotionType type = strategy.getType();
+            if (type == null) {
+                throw new IllegalStateException("Strategy " + strategy.getClass().getName() + " declares no promotion type");
+            }
+            PromotionStrategy existing = byType.putIfAbsent(type, strategy);
+            if (existing != null) {
+                throw new IllegalStateException(String.format("Both %s and %s handle %s promotions",
+                        existing.getClass().getName(), strategy.getClass().getName(), type));
+            }
+        }
+        EnumSet<PromotionType> missing = EnumSet.allOf(PromotionType.class);
+        missing.removeAll(byType.keySet());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("No strategy handles " + missing + " promotions");
+        }
+        return new PromotionStrategies(byType);
+    }
+
+    /**
+     * The strategy that evaluates {@code promotion}, or null when its type has no strategy or the
+     * promotion lacks what that strategy needs.
+     */
+    public PromotionStrategy bind(Promotion promotion) {
+        PromotionStrategy strategy = promotion.getType() != null ? byType.get(promotion.getType()) : null;
+        return strategy != null && strategy.supports(promotion) ? strategy : null;
+    }
+
+    /**
+     * Why {@code promotion} cannot be bound, or null when it can.
+     */
+    public String validate(Promotion promotion) {
+        if (promotion.getType() == null) {
+            return "Promotion '" + promotion.getName() + "' has no type";
+        }
+        PromotionStrategy strategy = byType.get(promotion.getType());
+        if (strategy == null) {
+            return "No strategy handles " + promotion.getType() + " promotions";
+        }
+        if (!strategy.supports(promotion)) {
+            return String.format("Promotion '%s' is not a valid %s promotion: %s",
+                    promotion.getName(), promotion.getType(), strategy.getRequirements());
+        }
+        return null;
+    }
+}
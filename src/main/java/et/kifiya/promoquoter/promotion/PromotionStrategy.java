@@ -1,6 +1,7 @@
 package et.kifiya.promoquoter.promotion;
 
 
+import et.kifiya.promoquoter.enums.PromotionType;
 import et.kifiya.promoquoter.model.Product;
 import et.kifiya.promoquoter.model.Promotion;
 
@@ -9,22 +10,92 @@ import java.util.Map;
 
 public interface PromotionStrategy {
 
+    /**
+     * The promotion type this strategy evaluates; exactly one strategy is registered per type.
+     */
+    PromotionType getType();
+
+    /**
+     * Whether {@code promotion} carries everything this strategy needs to evaluate it. Checked once
+     * when a promotion is created and when the active set is compiled, never per quote.
+     */
     boolean supports(Promotion promotion);
 
-    PromotionResult apply(Promotion promotion, Map<String, Product> products,
-                          Map<String, Integer> cartItems);
+    /**
+     * What {@link #supports} requires, for the error returned when a promotion is rejected.
+     */
+    default String getRequirements() {
+        return "missing required fields";
+    }
+
+    /**
+     * Evaluates the promotion against the engine's cart model. When {@code trace} is non-null the
+     * strategy also reports the lines it looked at and why the promotion did or did not fire.
+     */
+    PromotionResult apply(Promotion promotion, CartLines cart, PromotionTrace trace);
+
+    /**
+     * Evaluates a promotion bound by {@link PromotionIndex}, so that whatever was resolved when the
+     * index was compiled is not resolved again per quote.
+     */
+    default PromotionResult apply(BoundPromotion bound, CartLines cart, PromotionTrace trace) {
+        return apply(bound.getPromotion(), cart, trace);
+    }
+
+    default PromotionResult apply(Promotion promotion, CartLines cart) {
+        return apply(promotion, cart, null);
+    }
+
+    /**
+     * Map-keyed entry point for callers outside the engine; builds the cart model on every call.
+     */
+    default PromotionResult apply(Promotion promotion, Map<String, Product> products,
+                                  Map<String, Integer> cartItems) {
+        return apply(promotion, CartLines.of(products, cartItems), null);
+    }
 
     class PromotionResult {
+
+        /**
+         * Shared result for a promotion that does not fire.
+         */
+        public static final PromotionResult NONE = new PromotionResult(BigDecimal.ZERO, "");
+
+        // null when the discount is held in minor units
         private final BigDecimal discount;
+        private final long discountMinor;
         private final String description;
 
         public PromotionResult(BigDecimal discount, String description) {
             this.discount = discount != null ? discount : BigDecimal.ZERO;
+            this.discountMinor = 0;
+            this.description = description != null ? description : "";
+        }
+
+        /**
+         * A discount computed in {@link Money} minor units; it is only turned into a BigDecimal when
+         * read through {@link #getDiscount()}.
+         */
+        public PromotionResult(long discountMinor, String description) {
+            this.discount = null;
+            this.discountMinor = discountMinor;
             this.description = description != null ? description : "";
         }
 
         public BigDecimal getDiscount() {
-            return discount;
+            return discount != null ? discount : Money.toBigDecimal(discountMinor);
+        }
+
+        public boolean isMinorUnits() {
+            return discount == null;
+        }
+
+        public long getDiscountMinor() {
+            return discountMinor;
+        }
+
+        public int signum() {
+            return discount != null ? discount.signum() : Long.signum(discountMinor);
         }
 
         public String getDescription() {
@@ -33,8 +104,7 @@ public interface PromotionStrategy {
 
         @Override
         public String toString() {
-            return String.format("PromotionResult{discount=%s, description='%s'}", discount, description);
+            return String.format("PromotionResult{discount=%s, description='%s'}", getDiscount(), description);
         }
     }
 }
-
@@ -0,0 +1,83 @@
+package et.kifiya.promoquoter.promotion;
+
+
+import et.kifiya.promoquoter.model.Promotion;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how each candidate promotion was evaluated for one explained quote. Only created when a
+ * caller asks for an explanation; the regular pricing path never touches it.
+ */
+public final class PromotionTrace {
+
+    private final List<Evaluation> evaluations = new ArrayList<>();
+    private Evaluation current;
+
+    public void start(Promotion promotion) {
+        current = new Evaluation(promotion);
+    }
+
+    /**
+     * Marks a cart line the promotion being evaluated looked at or discounted.
+     */
+    public void touched(String productId) {
+        current.lines.add(productId);
+    }
+
+    public void reason(String reason) {
+        current.reason = reason;
+    }
+
+    public void finish(PromotionStrategy.PromotionResult result, long nanos) {
+        current.discount = result.getDiscount();
+        current.nanos = nanos;
+        if (current.reason == null) {
+            current.reason = current.isMatched() ? "applied" : "no discount";
+        }
+        evaluations.add(current);
+        current = null;
+    }
+
+    public List<Evaluation> getEvaluations() {
+        return evaluations;
+    }
+
+    public static final class Evaluation {
+        private final Promotion promotion;
+        private final List<String> lines = new ArrayList<>();
+        private BigDecimal discount = BigDecimal.ZERO;
+        private long nanos;
+        private String reason;
+
+        private Evaluation(Promotion promotion) {
+            this.promotion = promotion;
+        }
+
+        public Promotion getPromotion() {
+            return promotion;
+        }
+
+        public boolean isMatched() {
+            return discount.compareTo(BigDecimal.ZERO) > 0;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public BigDecimal getDiscount() {
+            return discount;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
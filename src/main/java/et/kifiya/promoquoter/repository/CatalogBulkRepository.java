@@ -0,0 +1,60 @@
+package et.kifiya.promoquoter.repository;
+
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Plain JDBC batch inserts of new catalog rows. Nothing passes through the persistence context, so
+ * memory does not grow with the number of rows written; ids must be assigned by the caller.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogBulkRepository {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (id, name, category, price, stock, version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PROMOTION =
+            "INSERT INTO promotion (id, name, type, category, discount_percent, product_id, buy_quantity, "
+                    + "get_quantity, priority, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts {@code products} in JDBC batches of at most {@code batchSize} statements. Rows start at
+     * version 0, as a newly persisted entity would; the products' own {@code version} is ignored.
+     * Missing required fields are written as null, so the table constraints reject those rows.
+     */
+    public void insertProducts(List<Product> products, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, batchSize, (ps, product) -> {
+            ps.setObject(1, product.getId());
+            ps.setString(2, product.getName());
+            ps.setString(3, product.getCategory() == null ? null : product.getCategory().name());
+            ps.setBigDecimal(4, product.getPrice());
+            ps.setObject(5, product.getStock(), Types.INTEGER);
+        });
+    }
+
+    /**
+     * Inserts {@code promotions} in JDBC batches of at most {@code batchSize} statements.
+     */
+    public void insertPromotions(List<Promotion> promotions, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_PROMOTION, promotions, batchSize, (ps, promotion) -> {
+            ps.setObject(1, promotion.getId());
+            ps.setString(2, promotion.getName());
+            ps.setString(3, promotion.getType() == null ? null : promotion.getType().name());
+            ps.setString(4, promotion.getCategory());
+            ps.setBigDecimal(5, promotion.getDiscountPercent());
+            ps.setObject(6, promotion.getProductId());
+            ps.setObject(7, promotion.getBuyQuantity(), Types.INTEGER);
+            ps.setObject(8, promotion.getGetQuantity(), Types.INTEGER);
+            ps.setObject(9, promotion.getPriority(), Types.INTEGER);
+            ps.setBoolean(10, promotion.isActive());
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package et.kifiya.promoquoter.repository;
+
+import et.kifiya.promoquoter.dto.ResponseDTO.ProductResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.PromotionResponseDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Catalog and promotion listings read straight into response DTOs, in id order. Pages are found by
+ * keyset, {@code id > after}, so a deep page costs the same as the first; streams walk a forward-only
+ * cursor fetched {@code promoquoter.listing.fetch-size} rows at a time. The primary key serves the
+ * unfiltered listings, and the (category, id) and (type, id) indexes the filtered ones.
+ */
+@Repository
+public class CatalogListingRepository {
+
+    private static final String SELECT_PRODUCTS = "SELECT id, name, category, price, stock FROM product";
+    private static final String SELECT_PROMOTIONS = "SELECT id, name, type, category, discount_percent, "
+            + "product_id, buy_quantity, get_quantity, priority, active FROM promotion";
+
+    private static final RowMapper<ProductResponse> PRODUCT = (rs, row) -> new ProductResponse(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            Category.valueOf(rs.getString(3)),
+            rs.getBigDecimal(4),
+            rs.getInt(5));
+
+    private static final RowMapper<PromotionResponseDto> PROMOTION = (rs, row) -> new PromotionResponseDto(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            PromotionType.valueOf(rs.getString(3)),
+            rs.getString(4),
+            rs.getBigDecimal(5),
+            rs.getObject(6, UUID.class),
+            rs.getObject(7, Integer.class),
+            rs.getObject(8, Integer.class),
+            rs.getObject(9, Integer.class),
+            rs.getBoolean(10));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final int maxPageSize;
+
+    public CatalogListingRepository(JdbcTemplate jdbcTemplate,
+                                    @Value("${promoquoter.listing.fetch-size:500}") int fetchSize,
+                                    @Value("${promoquoter.listing.max-page-size:1000}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public int getMaxPageSize() {
+        return maxPageSize;
+    }
+
+    /**
+     * Up to {@code limit} products after {@code after}, or from the start when it is null.
+     */
+    public List<ProductResponse> findProducts(Category category, UUID after, int limit) {
+        return page(SELECT_PRODUCTS, "category", category != null ? category.name() : null, after, limit, PRODUCT);
+    }
+
+    public void streamProducts(Category category, Consumer<ProductResponse> rows) {
+        stream(SELECT_PRODUCTS, "category", category != null ? category.name() : null, PRODUCT, rows);
+    }
+
+    /**
+     * Up to {@code limit} promotions after {@code after}, or from the start when it is null.
+     */
+    public List<PromotionResponseDto> findPromotions(PromotionType type, UUID after, int limit) {
+        return page(SELECT_PROMOTIONS, "type", type != null ? type.name() : null, after, limit, PROMOTION);
+    }
+
+    public void streamPromotions(PromotionType type, Consumer<PromotionResponseDto> rows) {
+        stream(SELECT_PROMOTIONS, "type", type != null ? type.name() : null, PROMOTION, rows);
+    }
+
+    private <T> List<T> page(String select, String filterColumn, String filter, UUID after, int limit,
+                             RowMapper<T> mapper) {
+        List<Object> args = new ArrayList<>(3);
+        StringBuilder sql = new StringBuilder(select);
+        String keyword = " WHERE ";
+        if (filter != null) {
+            sql.append(keyword).append(filterColumn).append(" = ?");
+            args.add(filter);
+            keyword = " AND ";
+        }
+        if (after != null) {
+            sql.append(keyword).append("id > ?");
+            args.add(after);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), mapper, args.toArray());
+    }
+
+    private <T> void stream(String select, String filterColumn, String filter, RowMapper<T> mapper,
+                            Consumer<T> rows) {
+        String sql = select + (filter != null ? " WHERE " + filterColumn + " = ?" : "") + " ORDER BY id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement =
+                    connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            if (filter != null) {
+                statement.setString(1, filter);
+            }
+            return statement;
+        }, rs -> {
+            rows.accept(mapper.mapRow(rs, 0));
+        });
+    }
+}
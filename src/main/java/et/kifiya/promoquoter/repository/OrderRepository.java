@@ -1,9 +1,8 @@
 package et.kifiya.promoquoter.repository;
 
 import et.kifiya.promoquoter.model.Order;
-import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -13,7 +12,7 @@ import java.util.UUID;
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     Optional<Order> findByIdempotencyKey(String idempotencyKey);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT o FROM Order o WHERE o.idempotencyKey = :idempotencyKey")
-    Optional<Order> findWithLockingByIdempotencyKey(@Param("idempotencyKey") String idempotencyKey);
+    @Modifying
+    @Query("delete from Order o where o.id = :id and o.status = :status")
+    int deleteByIdAndStatus(@Param("id") UUID id, @Param("status") String status);
 }
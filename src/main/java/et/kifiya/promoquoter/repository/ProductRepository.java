@@ -1,8 +1,22 @@
 package et.kifiya.promoquoter.repository;
 
 import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID> {}
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, UUID> {
+
+    /**
+     * Catalog data for the quote path as a constructor-expression projection: rows come back as
+     * immutable records and never enter the persistence context.
+     */
+    @Query("SELECT new et.kifiya.promoquoter.model.ProductView(p.id, p.name, p.category, p.price, p.version) "
+            + "FROM Product p WHERE p.id IN :ids")
+    List<ProductView> findViewsByIdIn(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,94 @@
+package et.kifiya.promoquoter.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Guarded stock updates that never read-modify-write the product row. Each update only applies
+ * when enough stock is left, so the affected-row count tells whether a line succeeded.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREMENT_STOCK =
+            "UPDATE product SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+    private static final String ADJUST_STOCK =
+            "UPDATE product SET stock = stock + ?, version = version + 1 WHERE id = ? AND stock + ? >= 0";
+
+    private static final int STOCK_QUERY_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Decrements stock for all lines in one JDBC batch. Rows are updated in product id order so
+     * concurrent checkouts sharing several SKUs always lock them in the same order and cannot
+     * deadlock.
+     *
+     * @return per line, in the caller's order, whether the decrement was applied
+     * @throws IncorrectUpdateSemanticsDataAccessException if the driver does not report update counts,
+     *         since an unknown outcome must not pass for an applied decrement
+     */
+    public boolean[] decrementStock(UUID[] productIds, int[] quantities) {
+        Integer[] order = new Integer[productIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> productIds[i]));
+
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int line = order[i];
+                ps.setInt(1, quantities[line]);
+                ps.setObject(2, productIds[line]);
+                ps.setInt(3, quantities[line]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productIds.length;
+            }
+        });
+
+        boolean[] applied = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IncorrectUpdateSemanticsDataAccessException(
+                        "JDBC driver reported no update count for the stock decrement of product " + productIds[order[i]]);
+            }
+            applied[order[i]] = counts[i] > 0;
+        }
+        return applied;
+    }
+
+    public boolean adjustStock(UUID productId, int quantityChange) {
+        return jdbcTemplate.update(ADJUST_STOCK, quantityChange, productId, quantityChange) == 1;
+    }
+
+    /**
+     * Current stock of the given products, read in chunks without touching the persistence context.
+     */
+    public Map<UUID, Integer> findStock(Collection<UUID> productIds) {
+        Map<UUID, Integer> stock = new HashMap<>(productIds.size() * 2);
+        List<UUID> ids = new ArrayList<>(productIds);
+        for (int from = 0; from < ids.size(); from += STOCK_QUERY_CHUNK) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + STOCK_QUERY_CHUNK, ids.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, stock FROM product WHERE id IN (" + placeholders + ")",
+                    rs -> {
+                        stock.put(rs.getObject(1, UUID.class), rs.getInt(2));
+                    },
+                    chunk.toArray());
+        }
+        return stock;
+    }
+}
@@ -0,0 +1,141 @@
+package et.kifiya.promoquoter.reservation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel: a single worker thread advances one bucket per tick and fires the timeouts
+ * that fall due, so scheduling and cancelling are O(1) regardless of how many timeouts are pending.
+ */
+@Slf4j
+public final class HashedTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final Queue<Timeout>[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile long startNanos;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, Duration tickDuration, int wheelSize) {
+        if (tickDuration.isZero() || tickDuration.isNegative() || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int buckets = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = buckets - 1;
+        this.wheel = new Queue[buckets];
+        for (int i = 0; i < buckets; i++) {
+            wheel[i] = new LinkedList<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delay.toNanos());
+        pending.add(timeout);
+        size.incrementAndGet();
+        return timeout;
+    }
+
+    public int pendingTimeouts() {
+        return size.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            transferPending(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                size.decrementAndGet();
+                continue;
+            }
+            long dueTick = Math.max((timeout.deadline - startNanos) / tickNanos, currentTick);
+            timeout.remainingRounds = (dueTick - currentTick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+                size.decrementAndGet();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                size.decrementAndGet();
+                timeout.fire();
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void fire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Timing wheel task failed", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package et.kifiya.promoquoter.reservation;
+
+import et.kifiya.promoquoter.exception.OutOfStockException;
+import et.kifiya.promoquoter.repository.ProductStockRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock holds placed at quote time and consumed by the matching confirm. Holds live in memory
+ * against a {@link StockLedger}, expire through a {@link HashedTimingWheel}, and never touch the
+ * product rows; the database stays authoritative through the guarded decrement at confirm.
+ */
+@Service
+@Slf4j
+public class ReservationService {
+
+    private static final int ACTIVE = 0;
+    private static final int CLAIMED = 1;
+    private static final int RELEASED = 2;
+
+    private final ProductStockRepository productStockRepository;
+    private final StockLedger ledger = new StockLedger();
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final HashedTimingWheel timingWheel;
+    private final Duration ttl;
+
+    public ReservationService(ProductStockRepository productStockRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${promoquoter.reservation.ttl:PT5M}") Duration ttl,
+                              @Value("${promoquoter.reservation.tick:PT1S}") Duration tick,
+                              @Value("${promoquoter.reservation.wheel-size:512}") int wheelSize) {
+        this.productStockRepository = productStockRepository;
+        this.ttl = ttl;
+        this.timingWheel = new HashedTimingWheel("reservation-expiry", tick, wheelSize);
+        Gauge.builder("promoquoter.reservations.active", holds, Map::size)
+                .description("Stock holds waiting to be confirmed or to expire")
+                .register(meterRegistry);
+        Gauge.builder("promoquoter.reservations.tracked.products", ledger, StockLedger::size)
+                .description("Products tracked in the in-memory stock ledger")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Holds stock for every line or for none of them.
+     *
+     * @return when the hold expires
+     */
+    public LocalDateTime reserve(String holdId, UUID[] productIds, int[] quantities) {
+        seedUntracked(productIds);
+        for (int i = 0; i < productIds.length; i++) {
+            if (!reserveLine(productIds[i], quantities[i])) {
+                for (int j = 0; j < i; j++) {
+                    ledger.release(productIds[j], quantities[j]);
+                }
+                throw new OutOfStockException(String.format(
+                        "Insufficient stock to reserve product %s. Requested: %d", productIds[i], quantities[i]));
+            }
+        }
+
+        Hold hold = new Hold(productIds, quantities);
+        hold.timeout = timingWheel.schedule(() -> expire(holdId, hold), ttl);
+        holds.put(holdId, hold);
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    /**
+     * Prepares stock for a confirmation inside the current transaction. A live hold matching the
+     * cart is claimed; otherwise the cart must fit into stock not held by other customers. The
+     * ledger is settled once the transaction completes. A transaction confirms one cart: preparing
+     * again in the same transaction, as a retry would, supersedes the earlier preparation.
+     */
+    public void prepareConfirm(String holdId, UUID[] productIds, int[] quantities) {
+        Hold hold = holdId != null ? holds.get(holdId) : null;
+        if (hold != null && !hold.matches(productIds, quantities)) {
+            release(holdId);
+            hold = null;
+        }
+        if (hold != null && !hold.state.compareAndSet(ACTIVE, CLAIMED)) {
+            hold = null;
+        }
+
+        if (hold == null) {
+            for (int i = 0; i < productIds.length; i++) {
+                int available = ledger.available(productIds[i]);
+                if (available < quantities[i]) {
+                    throw new OutOfStockException(String.format(
+                            "Insufficient stock for product %s. Requested: %d, Available: %d",
+                            productIds[i], quantities[i], available));
+                }
+            }
+        } else {
+            hold.timeout.cancel();
+            holds.remove(holdId, hold);
+        }
+
+        boolean[] begun = new boolean[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            begun[i] = ledger.beginSale(productIds[i]);
+        }
+        settleAfterCompletion(new Settlement(hold, productIds, quantities, begun));
+    }
+
+    public void release(String holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold != null && hold.state.compareAndSet(ACTIVE, RELEASED)) {
+            hold.timeout.cancel();
+            hold.releaseFrom(ledger);
+        }
+    }
+
+    public int reserved(UUID productId) {
+        return ledger.reserved(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${promoquoter.reservation.reconcile-interval:PT30S}")
+    public void reconcile() {
+        ledger.evictIdle();
+        int reconciled = reconcile(new HashSet<>(ledger.trackedProducts()));
+        if (reconciled > 0) {
+            log.debug("Reconciled {} tracked products with the database", reconciled);
+        }
+    }
+
+    /**
+     * Refreshes on-hand stock of the given products, where tracked, from the database; for writes
+     * that change stock outside a confirmation. Products with a confirmation in flight are left to
+     * the next pass.
+     *
+     * @return how many products were refreshed
+     */
+    public int reconcile(Collection<UUID> productIds) {
+        Map<UUID, Long> stamps = ledger.snapshotStamps(productIds);
+        if (stamps.isEmpty()) {
+            return 0;
+        }
+        int reconciled = 0;
+        for (Map.Entry<UUID, Integer> stock : productStockRepository.findStock(stamps.keySet()).entrySet()) {
+            if (ledger.reconcile(stock.getKey(), stock.getValue(), stamps.get(stock.getKey()))) {
+                reconciled++;
+            }
+        }
+        return reconciled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timingWheel.close();
+    }
+
+    private boolean reserveLine(UUID productId, int quantity) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (ledger.tryReserve(productId, quantity)) {
+                return true;
+            }
+            if (ledger.isTracked(productId)) {
+                return false;
+            }
+            seedUntracked(new UUID[]{productId});
+        }
+        return false;
+    }
+
+    private void seedUntracked(UUID[] productIds) {
+        List<UUID> untracked = new ArrayList<>();
+        for (UUID productId : productIds) {
+            if (!ledger.isTracked(productId)) {
+                untracked.add(productId);
+            }
+        }
+        if (!untracked.isEmpty()) {
+            productStockRepository.findStock(untracked).forEach(ledger::seed);
+        }
+    }
+
+    private void expire(String holdId, Hold hold) {
+        if (hold.state.compareAndSet(ACTIVE, RELEASED)) {
+            holds.remove(holdId, hold);
+            hold.releaseFrom(ledger);
+            log.debug("Reservation {} expired", holdId);
+        }
+    }
+
+    private void settle(Settlement settlement, boolean committed) {
+        for (int i = 0; i < settlement.productIds.length; i++) {
+            UUID productId = settlement.productIds[i];
+            int quantity = settlement.quantities[i];
+            if (settlement.hold != null) {
+                if (committed && settlement.begun[i]) {
+                    ledger.consume(productId, quantity);
+                    continue;
+                }
+                ledger.release(productId, quantity);
+            } else if (committed && settlement.begun[i]) {
+                ledger.recordSale(productId, quantity);
+                continue;
+            }
+            if (settlement.begun[i]) {
+                ledger.abortSale(productId);
+            }
+        }
+    }
+
+    /**
+     * Binds the settlement to the current transaction, registering one synchronization per
+     * transaction however often the confirmation is prepared in it.
+     */
+    private void settleAfterCompletion(Settlement settlement) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(settlement, true);
+            return;
+        }
+        PendingSettlement pending = (PendingSettlement) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            log.debug("Confirmation prepared again in the same transaction, superseding the earlier preparation");
+            settle(pending.settlement, false);
+            pending.settlement = settlement;
+            return;
+        }
+        PendingSettlement created = new PendingSettlement(settlement);
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReservationService.this);
+                settle(created.settlement, status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private record Settlement(Hold hold, UUID[] productIds, int[] quantities, boolean[] begun) {
+    }
+
+    private static final class PendingSettlement {
+        private Settlement settlement;
+
+        private PendingSettlement(Settlement settlement) {
+            this.settlement = settlement;
+        }
+    }
+
+    private static final class Hold {
+        private final UUID[] productIds;
+        private final int[] quantities;
+        private final AtomicInteger state = new AtomicInteger(ACTIVE);
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        private Hold(UUID[] productIds, int[] quantities) {
+            this.productIds = productIds;
+            this.quantities = quantities;
+        }
+
+        private boolean matches(UUID[] otherIds, int[] otherQuantities) {
+            return Arrays.equals(productIds, otherIds) && Arrays.equals(quantities, otherQuantities);
+        }
+
+        private void releaseFrom(StockLedger ledger) {
+            for (int i = 0; i < productIds.length; i++) {
+                ledger.release(productIds[i], quantities[i]);
+            }
+        }
+    }
+}
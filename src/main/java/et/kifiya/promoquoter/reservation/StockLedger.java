@@ -0,0 +1,215 @@
+package et.kifiya.promoquoter.reservation;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory view of on-hand and reserved stock per product. Only products with live holds need to
+ * be tracked; on-hand figures are refreshed from the database by background reconciliation.
+ * <p>
+ * On-hand moves two ways: by sales settled here after their transaction commits, and by database
+ * snapshots. A snapshot that overlaps a sale may or may not already contain it, so each entry counts
+ * its confirmations in flight and its settled sales, and a snapshot is only applied when neither
+ * changed while it was being read.
+ */
+public final class StockLedger {
+
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    public boolean isTracked(UUID productId) {
+        return entries.containsKey(productId);
+    }
+
+    public void seed(UUID productId, int onHand) {
+        entries.computeIfAbsent(productId, id -> new Entry(onHand));
+    }
+
+    /**
+     * Atomically holds {@code quantity} units if enough unreserved stock is left. Returns false when
+     * stock is short or the product is not (or no longer) tracked; callers tell the two apart with
+     * {@link #isTracked(UUID)}.
+     */
+    public boolean tryReserve(UUID productId, int quantity) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            return false;
+        }
+        while (true) {
+            int reserved = entry.reserved.get();
+            if (reserved == RETIRED) {
+                entries.remove(productId, entry);
+                return false;
+            }
+            if (entry.onHand.get() - reserved < quantity) {
+                return false;
+            }
+            if (entry.reserved.compareAndSet(reserved, reserved + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(UUID productId, int quantity) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            entry.reserved.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * A confirmation that will sell this product has started. Until it settles, reconciliation
+     * leaves the product alone and it is not evicted.
+     *
+     * @return false when the product is not tracked; its sale then must not be settled here
+     */
+    public boolean beginSale(UUID productId) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.reserved.get() == RETIRED) {
+                return false;
+            }
+            entry.salesInFlight++;
+            return true;
+        }
+    }
+
+    /**
+     * A held quantity was sold: it leaves both the reservation and the on-hand stock.
+     */
+    public void consume(UUID productId, int quantity) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            entry.reserved.addAndGet(-quantity);
+            settleSale(entry, quantity);
+        }
+    }
+
+    public void recordSale(UUID productId, int quantity) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            settleSale(entry, quantity);
+        }
+    }
+
+    /**
+     * A sale begun with {@link #beginSale(UUID)} was rolled back.
+     */
+    public void abortSale(UUID productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.salesInFlight--;
+            }
+        }
+    }
+
+    /**
+     * Stock not held by anyone, or {@link Integer#MAX_VALUE} when the product has no holds.
+     */
+    public int available(UUID productId) {
+        Entry entry = entries.get(productId);
+        int reserved = entry != null ? entry.reserved.get() : 0;
+        if (reserved <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return entry.onHand.get() - reserved;
+    }
+
+    public int reserved(UUID productId) {
+        Entry entry = entries.get(productId);
+        return entry != null ? Math.max(entry.reserved.get(), 0) : 0;
+    }
+
+    public Set<UUID> trackedProducts() {
+        return entries.keySet();
+    }
+
+    /**
+     * Stamps taken before reading a stock snapshot, for the products a snapshot may be applied to:
+     * tracked ones with no sale in flight.
+     */
+    public Map<UUID, Long> snapshotStamps(Collection<UUID> productIds) {
+        Map<UUID, Long> stamps = new HashMap<>(productIds.size() * 2);
+        for (UUID productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.salesInFlight == 0) {
+                    stamps.put(productId, entry.salesSettled);
+                }
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * Replaces on-hand with a database snapshot read after {@code stamp} was taken, unless a sale
+     * began or settled since, in which case the snapshot may already hold it and is skipped.
+     *
+     * @return whether the snapshot was applied
+     */
+    public boolean reconcile(UUID productId, int onHand, long stamp) {
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.salesInFlight != 0 || entry.salesSettled != stamp) {
+                return false;
+            }
+            entry.onHand.set(onHand);
+            return true;
+        }
+    }
+
+    /**
+     * Drops products without holds or sales in flight so the ledger stays proportional to live
+     * reservations.
+     */
+    public void evictIdle() {
+        for (Map.Entry<UUID, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (entry.salesInFlight == 0 && entry.reserved.compareAndSet(0, RETIRED)) {
+                    entries.remove(e.getKey(), entry);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static void settleSale(Entry entry, int quantity) {
+        synchronized (entry) {
+            entry.onHand.addAndGet(-quantity);
+            entry.salesSettled++;
+            entry.salesInFlight--;
+        }
+    }
+
+    private static final class Entry {
+        private final AtomicInteger onHand;
+        private final AtomicInteger reserved = new AtomicInteger();
+        // guarded by the entry
+        private int salesInFlight;
+        private long salesSettled;
+
+        private Entry(int onHand) {
+            this.onHand = new AtomicInteger(onHand);
+        }
+    }
+}
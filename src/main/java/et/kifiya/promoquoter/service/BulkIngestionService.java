@@ -0,0 +1,143 @@
+package et.kifiya.promoquoter.service;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.dto.requestDTO.PromotionRequestDto;
+import et.kifiya.promoquoter.ingest.StreamingImporter.ChunkWriter;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.repository.CatalogBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Writes one chunk of new products or promotions per transaction with JDBC statement batching,
+ * bypassing the persistence context, so an import of any size commits as it goes in bounded memory.
+ * When a chunk's batch fails it is rolled back and its rows are retried one per transaction, which
+ * stores every good row and tells exactly which rows failed and why.
+ */
+@Service
+@Slf4j
+public class BulkIngestionService {
+
+    private final CatalogBulkRepository catalogBulkRepository;
+    private final PromotionService promotionService;
+    private final ProductCatalogCache productCatalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BulkIngestionService(CatalogBulkRepository catalogBulkRepository,
+                                PromotionService promotionService,
+                                ProductCatalogCache productCatalogCache,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${promoquoter.ingest.batch-size:500}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Ingest batch size must be positive");
+        }
+        this.catalogBulkRepository = catalogBulkRepository;
+        this.promotionService = promotionService;
+        this.productCatalogCache = productCatalogCache;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * A writer for one streamed product import: each chunk commits on its own, and the catalog
+     * version is bumped once, when the import ends.
+     */
+    public ChunkWriter<ProductRequestDto> productImport() {
+        return new ChunkWriter<>() {
+            private long stored;
+
+            @Override
+            public String[] write(List<ProductRequestDto> chunk) {
+                return writeProducts(chunk, rows -> stored += rows.size());
+            }
+
+            @Override
+            public void finish() {
+                if (stored > 0) {
+                    productCatalogCache.productsAdded(stored);
+                }
+            }
+        };
+    }
+
+    /**
+     * A writer for one streamed promotion import: each chunk commits on its own, and the stored
+     * promotions are merged into the active snapshot together when the import ends, so the
+     * snapshot is rebuilt once rather than once per chunk.
+     */
+    public ChunkWriter<PromotionRequestDto> promotionImport() {
+        return new ChunkWriter<>() {
+            private final List<Promotion> stored = new ArrayList<>();
+
+            @Override
+            public String[] write(List<PromotionRequestDto> chunk) {
+                return writePromotions(chunk, stored::addAll);
+            }
+
+            @Override
+            public void finish() {
+                if (!stored.isEmpty()) {
+                    promotionService.mergeIntoSnapshot(stored);
+                }
+            }
+        };
+    }
+
+    private String[] writeProducts(List<ProductRequestDto> requests, Consumer<List<Product>> afterCommit) {
+        List<Product> products = new ArrayList<>(requests.size());
+        for (ProductRequestDto request : requests) {
+            Product product = ProductService.mapToProduct(request);
+            product.setId(UUID.randomUUID());
+            products.add(product);
+        }
+        return write(products, chunk -> catalogBulkRepository.insertProducts(chunk, batchSize), afterCommit);
+    }
+
+    private String[] writePromotions(List<PromotionRequestDto> requests, Consumer<List<Promotion>> afterCommit) {
+        List<Promotion> promotions = new ArrayList<>(requests.size());
+        for (PromotionRequestDto request : requests) {
+            Promotion promotion = PromotionService.mapToPromotion(request);
+            promotion.setId(UUID.randomUUID());
+            promotions.add(promotion);
+        }
+        return write(promotions, chunk -> catalogBulkRepository.insertPromotions(chunk, batchSize), afterCommit);
+    }
+
+    private <T> String[] write(List<T> rows, Consumer<List<T>> insert, Consumer<List<T>> afterCommit) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert.accept(rows));
+            afterCommit.accept(rows);
+            return null;
+        } catch (DataAccessException e) {
+            log.debug("Batch of {} rows failed, retrying row by row: {}", rows.size(), e.getMessage());
+        }
+
+        String[] failures = new String[rows.size()];
+        List<T> stored = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            List<T> row = List.of(rows.get(i));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert.accept(row));
+                stored.add(rows.get(i));
+            } catch (DataAccessException e) {
+                failures[i] = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            }
+        }
+        if (!stored.isEmpty()) {
+            afterCommit.accept(stored);
+        }
+        return failures;
+    }
+}
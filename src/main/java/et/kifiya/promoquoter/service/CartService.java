@@ -1,33 +1,64 @@
 package et.kifiya.promoquoter.service;
 
 
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.cache.QuoteFingerprint;
 import et.kifiya.promoquoter.dto.CartRequest;
 import et.kifiya.promoquoter.dto.ResponseDTO.AppliedPromotion;
+import et.kifiya.promoquoter.dto.ResponseDTO.BatchQuoteResult;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartItemDto;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.ResponseDTO.PromotionEvaluationDto;
 import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
 import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
 import et.kifiya.promoquoter.exception.OutOfStockException;
+import et.kifiya.promoquoter.exception.ValidationException;
 import et.kifiya.promoquoter.model.Order;
 import et.kifiya.promoquoter.model.OrderItem;
 import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
 import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.Money;
+import et.kifiya.promoquoter.promotion.PromotionIndex;
+import et.kifiya.promoquoter.promotion.PromotionTrace;
 import et.kifiya.promoquoter.repository.OrderRepository;
+import et.kifiya.promoquoter.reservation.ReservationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static et.kifiya.promoquoter.service.PipelineMetrics.CONFIRM_ATTEMPT;
+import static et.kifiya.promoquoter.service.PipelineMetrics.CONFLICT;
+import static et.kifiya.promoquoter.service.PipelineMetrics.ERROR;
+import static et.kifiya.promoquoter.service.PipelineMetrics.ORDER_CLAIM;
+import static et.kifiya.promoquoter.service.PipelineMetrics.ORDER_INSERT;
+import static et.kifiya.promoquoter.service.PipelineMetrics.PRODUCT_FETCH;
+import static et.kifiya.promoquoter.service.PipelineMetrics.PROMOTION_APPLY;
+import static et.kifiya.promoquoter.service.PipelineMetrics.PROMOTION_FETCH;
+import static et.kifiya.promoquoter.service.PipelineMetrics.RESPONSE_BUILD;
+import static et.kifiya.promoquoter.service.PipelineMetrics.STOCK_DECREMENT;
+import static et.kifiya.promoquoter.service.PipelineMetrics.STOCK_VALIDATION;
+import static et.kifiya.promoquoter.service.PipelineMetrics.SUCCESS;
+
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -37,32 +68,110 @@ public class CartService {
     private final PromotionService promotionService;
     private final OrderRepository orderRepository;
     private final IdempotencyService idempotencyService;
-
-    @Transactional(readOnly = true)
+    private final ReservationService reservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final QuoteCache quoteCache;
+    private final QuoteBatchExecutor quoteBatchExecutor;
+    private final PipelineMetrics pipelineMetrics;
+    private final LargeCartMode largeCartMode;
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CartResponseDto calculateQuote(CartRequest request) {
-        Map<String, Product> products = getProductsFromRequest(request);
-        Map<String, Integer> cartItems = convertToCartItems(request);
-        BigDecimal subtotal = calculateSubtotal(products, cartItems);
-        List<Promotion> activePromotions = promotionService.getActivePromotions();
-        activePromotions.forEach(promo -> log.info("Promotion: {} - {} - Active: {}",
-                promo.getName(), promo.getType(), promo.isActive()));
-
-        PromotionService.PromotionContext context =
-                promotionService.applyPromotions(activePromotions, products, cartItems);
-        CartResponseDto response = buildQuoteResponse(products, cartItems, subtotal, context);
+        return calculateQuote(request, false);
+    }
+
+    /**
+     * With {@code explain} set the cart is always priced afresh, bypassing the quote cache, and the
+     * response lists how every candidate promotion was evaluated. Quoting reads catalog records
+     * and the promotion snapshot only, so it runs outside any transaction or persistence context.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CartResponseDto calculateQuote(CartRequest request, boolean explain) {
+        if (explain) {
+            return explainQuote(request);
+        }
+        List<CartItemRequest> items = request.getItems();
+        int lines = items.size();
+        pipelineMetrics.recordCart("quote", lines);
+        PromotionIndex promotionIndex = pipelineMetrics.time(PROMOTION_FETCH, lines, promotionService::getPromotionIndex);
+        UUID[] productIds = parseProductIds(items);
+        QuoteFingerprint fingerprint = QuoteFingerprint.of(productIds, items, request.getCustomerSegment(),
+                productService.getCatalogVersion(), promotionIndex.getVersion());
+        CartResponseDto response = quoteCache.get(fingerprint, items, () -> priceCart(
+                pipelineMetrics.time(PRODUCT_FETCH, lines, () -> loadCart(items, productIds)), promotionIndex));
+        if (request.isReserve()) {
+            reserveStock(productIds, items, response);
+        }
         return response;
     }
 
-    @Transactional
-    public CartConfirmResponse confirmCart(CartConfirmRequest request, String idempotencyKey) {
-        Optional<Order> existingOrder = orderRepository.findByIdempotencyKey(idempotencyKey);
-        if (existingOrder.isPresent()) {
-            return getOrderConfirmationResponse(existingOrder.get().getId());
+    /**
+     * Only the fetch stages are timed here: tracing slows promotion evaluation and response building,
+     * and those samples would skew the timers of the untraced pricing path.
+     */
+    private CartResponseDto explainQuote(CartRequest request) {
+        int lines = request.getItems().size();
+        pipelineMetrics.recordCart("quote", lines);
+        PromotionIndex promotionIndex = pipelineMetrics.time(PROMOTION_FETCH, lines, promotionService::getPromotionIndex);
+        UUID[] productIds = parseProductIds(request.getItems());
+        CartLines cart = pipelineMetrics.time(PRODUCT_FETCH, lines, () -> loadCart(request.getItems(), productIds));
+        PromotionTrace trace = new PromotionTrace();
+
+        BigDecimal subtotal = calculateSubtotal(cart);
+        PromotionService.PromotionContext context = promotionService.applyPromotions(promotionIndex, cart, trace);
+        CartResponseDto response = buildQuoteResponse(cart, subtotal, context);
+        response.setExplain(buildExplanation(trace));
+        if (request.isReserve()) {
+            reserveStock(productIds, request.getItems(), response);
+        }
+        return response;
+    }
+
+    private List<PromotionEvaluationDto> buildExplanation(PromotionTrace trace) {
+        List<PromotionEvaluationDto> explanation = new ArrayList<>(trace.getEvaluations().size());
+        for (PromotionTrace.Evaluation evaluation : trace.getEvaluations()) {
+            Promotion promotion = evaluation.getPromotion();
+            explanation.add(new PromotionEvaluationDto(
+                    String.valueOf(promotion.getId()),
+                    promotion.getName(),
+                    promotion.getType() != null ? promotion.getType().name() : null,
+                    evaluation.isMatched(),
+                    evaluation.getNanos(),
+                    evaluation.getDiscount(),
+                    evaluation.getLines(),
+                    evaluation.getReason()
+            ));
         }
+        return explanation;
+    }
+
+    /**
+     * Prices many carts against one promotion snapshot and one union product fetch. Carts are
+     * priced in parallel; results come back in request order, each with either a quote or an error.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BatchQuoteResult> calculateQuotes(List<CartRequest> requests) {
+        if (requests.size() > quoteBatchExecutor.getMaxBatchSize()) {
+            throw new ValidationException(
+                    "A batch may contain at most " + quoteBatchExecutor.getMaxBatchSize() + " carts");
+        }
+        PromotionIndex promotionIndex = pipelineMetrics.time(PROMOTION_FETCH, requests.size(),
+                promotionService::getPromotionIndex);
+        long catalogVersion = productService.getCatalogVersion();
+        Map<UUID, ProductView> catalog = pipelineMetrics.time(PRODUCT_FETCH, requests.size(),
+                () -> loadBatchCatalog(requests));
+
+        return quoteBatchExecutor.map(requests.size(),
+                index -> quoteInBatch(index, requests.get(index), catalog, promotionIndex, catalogVersion));
+    }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CartConfirmResponse confirmCart(CartConfirmRequest request, String idempotencyKey) {
         try {
-            return executeWithRetry(() -> processCartConfirmation(request, idempotencyKey));
-        } catch (ObjectOptimisticLockingFailureException e) {
+            return idempotencyService.execute(idempotencyKey, () -> confirmOnce(request, idempotencyKey));
+        } catch (ResponseStatusException | ValidationException e) {
+            throw e;
+        } catch (ConcurrencyFailureException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,"Unable to process order due to concurrent modification. Please try again.");
         } catch (OutOfStockException e) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
@@ -72,190 +181,380 @@ public class CartService {
             }
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error processing order");
         } catch (Exception e) {
+            log.error("Cart confirmation failed", e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error processing cart confirmation");
         }
     }
 
-    private CartConfirmResponse processCartConfirmation(CartConfirmRequest request, String idempotencyKey) {
-        validateStockForAllItems(request.getItems());
-        CartRequest quoteRequest = new CartRequest();
-        quoteRequest.setItems(request.getItems());
-        quoteRequest.setCustomerSegment(request.getCustomerSegment());
-        CartResponseDto quote = calculateQuote(quoteRequest);
-        Optional<Order> lastMinuteCheck = orderRepository.findWithLockingByIdempotencyKey(idempotencyKey);
-        if (lastMinuteCheck.isPresent()) {
-            return getOrderConfirmationResponse(lastMinuteCheck.get().getId());
+    private CartConfirmResponse confirmOnce(CartConfirmRequest request, String idempotencyKey) {
+        int lines = lineCount(request.getItems());
+        Order claim;
+        try {
+            claim = pipelineMetrics.time(ORDER_CLAIM, lines, () -> claimIdempotencyKey(idempotencyKey));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Idempotency-Key {} already claimed, returning the existing order", idempotencyKey);
+            return transactionTemplate.execute(status -> getClaimedOrderResponse(idempotencyKey, e));
+        }
+
+        try {
+            return executeWithRetry(() ->
+                    transactionTemplate.execute(status -> processCartConfirmation(request, claim)), lines);
+        } catch (RuntimeException e) {
+            releaseClaim(claim);
+            throw e;
         }
+    }
 
-        Order order = createOrder(request, quote, idempotencyKey);
-        return buildConfirmResponse(order, quote, "NEW");
+    private CartConfirmResponse processCartConfirmation(CartConfirmRequest request, Order claim) {
+        int lines = lineCount(request.getItems());
+        Order order = claim != null ? claim : new Order();
+        ConfirmationWorkingSet workingSet = pipelineMetrics.time(PRODUCT_FETCH, lines,
+                () -> ConfirmationWorkingSet.load(request.getItems(), productService));
+        pipelineMetrics.time(STOCK_VALIDATION, lines, workingSet::validateStock);
+        reservationService.prepareConfirm(request.getQuoteId(), workingSet.getProductIds(), workingSet.getQuantities());
+        PromotionIndex promotionIndex = pipelineMetrics.time(PROMOTION_FETCH, lines, promotionService::getPromotionIndex);
+        CartResponseDto quote = priceCart(
+                toCartLines(request.getItems(), workingSet), promotionIndex);
+
+        Order savedOrder = createOrder(order, request, quote, workingSet);
+        return buildConfirmResponse(savedOrder, quote, "NEW", workingSet::getProduct);
     }
 
-    private void validateStockForAllItems(List<CartItemRequest> items) {
-        for (CartItemRequest item : items) {
-            productService.validateStockAvailability(
-                    UUID.fromString(item.getProductId()),
-                    item.getQty()
-            );
+    /**
+     * Claims the idempotency key by inserting the order as PENDING in a transaction of its own, so
+     * the claim is visible to other instances while this one does the stock and pricing work; a
+     * duplicate is rejected by the unique index on the key and answered with 409 until the first
+     * confirmation commits. Returns null when no key was sent.
+     */
+    private Order claimIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
         }
+        Order order = new Order();
+        order.setStatus(Order.STATUS_PENDING);
+        order.setIdempotencyKey(idempotencyKey);
+        return inNewTransaction(status -> orderRepository.saveAndFlush(order));
     }
 
+    /**
+     * Drops a claim whose confirmation failed, so the key can be retried. Only a row still PENDING
+     * is removed; a failure here is logged and leaves the claim answering 409.
+     */
+    private void releaseClaim(Order claim) {
+        if (claim == null) {
+            return;
+        }
+        try {
+            inNewTransaction(status -> orderRepository.deleteByIdAndStatus(claim.getId(), Order.STATUS_PENDING));
+        } catch (RuntimeException e) {
+            log.warn("Could not release the claim on Idempotency-Key {}", claim.getIdempotencyKey(), e);
+        }
+    }
 
-    private <T> T executeWithRetry(Callable<T> task) {
-        int retryCount = 0;
-        int maxRetries = 3;
+    private <T> T inNewTransaction(TransactionCallback<T> action) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template.execute(action);
+    }
 
-        while (retryCount < maxRetries) {
-            try {
-                return task.call();
-            } catch (ObjectOptimisticLockingFailureException e) {
-                retryCount++;
-                log.warn("Optimistic lock failure - attempt {}/{}", retryCount, maxRetries);
+    private CartConfirmResponse getClaimedOrderResponse(String idempotencyKey, DataIntegrityViolationException cause) {
+        Order existingOrder = orderRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> cause);
+        if (Order.STATUS_PENDING.equals(existingOrder.getStatus())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "An order with this Idempotency-Key is still being processed");
+        }
+        return getOrderConfirmationResponse(existingOrder.getId());
+    }
 
-                if (retryCount >= maxRetries) {
-                    throw e;
+    private Map<UUID, ProductView> loadBatchCatalog(List<CartRequest> requests) {
+        Set<UUID> productIds = new HashSet<>();
+        for (CartRequest request : requests) {
+            if (request == null || request.getItems() == null) {
+                continue;
+            }
+            for (CartItemRequest item : request.getItems()) {
+                try {
+                    productIds.add(UUID.fromString(item.getProductId()));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    // reported against its own cart when that cart is priced
                 }
+            }
+        }
+
+        return productService.getProductViews(productIds);
+    }
+
+    private BatchQuoteResult quoteInBatch(int index, CartRequest request, Map<UUID, ProductView> catalog,
+                                          PromotionIndex promotionIndex, long catalogVersion) {
+        try {
+            checkBatchCart(request);
+            UUID[] productIds = parseProductIds(request.getItems());
+            QuoteFingerprint fingerprint = QuoteFingerprint.of(productIds, request.getItems(),
+                    request.getCustomerSegment(), catalogVersion, promotionIndex.getVersion());
+            CartResponseDto quote = quoteCache.get(fingerprint, request.getItems(), () -> priceCart(
+                    toCartLines(request.getItems(), productIds, catalog::get), promotionIndex));
+            if (request.isReserve()) {
+                reserveStock(productIds, request.getItems(), quote);
+            }
+            return BatchQuoteResult.success(index, quote);
+        } catch (RuntimeException e) {
+            return BatchQuoteResult.failure(index, e.getMessage());
+        }
+    }
 
+    /**
+     * The bean validation rules of {@link CartRequest}, checked per cart so that one bad cart fails
+     * on its own instead of rejecting the whole batch.
+     */
+    private static void checkBatchCart(CartRequest request) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new ValidationException("Cart items cannot be empty");
+        }
+        List<CartItemRequest> items = request.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            CartItemRequest item = items.get(i);
+            if (item == null || item.getProductId() == null) {
+                throw new ValidationException("items[" + i + "].productId: Product ID is required");
+            }
+            if (item.getQty() == null) {
+                throw new ValidationException("items[" + i + "].qty: Quantity is required");
+            }
+        }
+    }
+
+    private void reserveStock(UUID[] productIds, List<CartItemRequest> items, CartResponseDto quote) {
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            quantities[i] = items.get(i).getQty();
+        }
+        quote.setReservationExpiresAt(reservationService.reserve(quote.getQuoteId(), productIds, quantities));
+    }
+
+    private CartResponseDto priceCart(CartLines cart, PromotionIndex promotionIndex) {
+        int lines = cart.size();
+        BigDecimal subtotal = calculateSubtotal(cart);
+        PromotionService.PromotionContext context = pipelineMetrics.time(PROMOTION_APPLY, lines,
+                () -> promotionService.applyPromotions(promotionIndex, cart));
+        return pipelineMetrics.time(RESPONSE_BUILD, lines,
+                () -> buildQuoteResponse(cart, subtotal, context));
+    }
+
+    /**
+     * Retries a confirmation that lost a row lock: a lock wait timeout, or a deadlock victim should
+     * lock ordering ever be bypassed. Stock is decremented by guarded updates rather than versioned
+     * entity writes, so no optimistic lock failure can occur on this path and none is retried.
+     * Each attempt is timed, and the number of attempts per confirmation is recorded with its final
+     * outcome.
+     */
+    private <T> T executeWithRetry(Callable<T> task, int lines) {
+        int retryCount = 0;
+        int maxRetries = 3;
+        int attempts = 0;
+        String outcome = ERROR;
+
+        try {
+            while (retryCount < maxRetries) {
+                attempts++;
+                long start = System.nanoTime();
                 try {
-                    Thread.sleep(100 * retryCount);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Retry interrupted", ie);
+                    T result = task.call();
+                    pipelineMetrics.record(CONFIRM_ATTEMPT, lines, SUCCESS, System.nanoTime() - start);
+                    outcome = SUCCESS;
+                    return result;
+                } catch (PessimisticLockingFailureException e) {
+                    pipelineMetrics.record(CONFIRM_ATTEMPT, lines, CONFLICT, System.nanoTime() - start);
+                    retryCount++;
+                    log.warn("Stock row lock not acquired - attempt {}/{}", retryCount, maxRetries);
+
+                    if (retryCount >= maxRetries) {
+                        outcome = CONFLICT;
+                        throw e;
+                    }
+
+                    try {
+                        Thread.sleep(100 * retryCount);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Retry interrupted", ie);
+                    }
+                } catch (Exception e) {
+                    pipelineMetrics.record(CONFIRM_ATTEMPT, lines, ERROR, System.nanoTime() - start);
+                    if (e instanceof RuntimeException) {
+                        throw (RuntimeException) e;
+                    }
+                    throw new RuntimeException(e);
                 }
-            } catch (Exception e) {
-                if (e instanceof RuntimeException) {
-                    throw (RuntimeException) e;
-                }
-                throw new RuntimeException(e);
             }
+            throw new RuntimeException("Max retries exceeded");
+        } finally {
+            pipelineMetrics.recordConfirmAttempts(attempts, outcome);
         }
-        throw new RuntimeException("Max retries exceeded");
     }
 
-    private Map<String, Product> getProductsFromRequest(CartRequest request) {
-        List<UUID> productIds = request.getItems().stream()
-                .map(item -> UUID.fromString(item.getProductId()))
-                .collect(Collectors.toList());
+    private static int lineCount(List<CartItemRequest> items) {
+        return items != null ? items.size() : 0;
+    }
+
+    /**
+     * Parses every request product id exactly once; the ids are then shared by the fingerprint, the
+     * product fetch, the cart model and stock reservation.
+     */
+    private static UUID[] parseProductIds(List<CartItemRequest> items) {
+        UUID[] productIds = new UUID[items.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = UUID.fromString(items.get(i).getProductId());
+        }
+        return productIds;
+    }
 
-        List<Product> products = productService.getProductsByIds(productIds);
+    private CartLines loadCart(List<CartItemRequest> items, UUID[] productIds) {
+        Map<UUID, ProductView> products = productService.getProductViews(Arrays.asList(productIds));
 
-        if (products.size() != productIds.size()) {
+        if (products.size() != productIds.length) {
             throw new IllegalArgumentException("One or more products not found");
         }
+        return toCartLines(items, productIds, products::get);
+    }
 
-        return products.stream()
-                .collect(Collectors.toMap(p -> p.getId().toString(), p -> p));
+    private CartLines toCartLines(List<CartItemRequest> items, UUID[] productIds,
+                                  Function<UUID, ProductView> products) {
+        CartLines.Builder cart = CartLines.builder(items.size());
+        for (int i = 0; i < productIds.length; i++) {
+            ProductView product = products.apply(productIds[i]);
+            if (product == null) {
+                throw new IllegalArgumentException("One or more products not found");
+            }
+            cart.add(items.get(i).getProductId(), productIds[i], product, items.get(i).getQty());
+        }
+        return cart.build(largeCartMode);
     }
 
-    private Map<String, Integer> convertToCartItems(CartRequest request) {
-        return request.getItems().stream()
-                .collect(Collectors.toMap(
-                        CartItemRequest::getProductId,
-                        CartItemRequest::getQty
-                ));
+    /**
+     * Confirmation prices the managed entities it is about to decrement stock on, not cached views.
+     */
+    private CartLines toCartLines(List<CartItemRequest> items, ConfirmationWorkingSet workingSet) {
+        UUID[] productIds = workingSet.getProductIds();
+        CartLines.Builder cart = CartLines.builder(items.size());
+        for (int i = 0; i < productIds.length; i++) {
+            cart.add(items.get(i).getProductId(), productIds[i], workingSet.getProduct(productIds[i]),
+                    items.get(i).getQty());
+        }
+        return cart.build(largeCartMode);
     }
 
-    private BigDecimal calculateSubtotal(Map<String, Product> products, Map<String, Integer> cartItems) {
-        return cartItems.entrySet().stream()
-                .map(entry -> {
-                    Product product = products.get(entry.getKey());
-                    return product.getPrice().multiply(BigDecimal.valueOf(entry.getValue()));
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+    private BigDecimal calculateSubtotal(CartLines cart) {
+        return cart.analysis().getSubtotal();
     }
 
-    private Order createOrder(CartConfirmRequest request, CartResponseDto quote, String idempotencyKey) {
-        Order order = new Order();
+    private Order createOrder(Order order, CartConfirmRequest request, CartResponseDto quote,
+                              ConfirmationWorkingSet workingSet) {
+        order.setStatus(Order.STATUS_CONFIRMED);
         order.setCustomerSegment(request.getCustomerSegment().name());
         order.setSubtotal(quote.getSubtotal());
         order.setTotalDiscount(quote.getTotalDiscount());
         order.setTotal(quote.getTotal());
-        order.setIdempotencyKey(idempotencyKey);
-        List<OrderItem> orderItems = request.getItems().stream()
-                .map(item -> {
-                    Product product = productService.getProductEntity(UUID.fromString(item.getProductId()));
-
-                    OrderItem orderItem = new OrderItem();
-                    orderItem.setProductId(UUID.fromString(item.getProductId()));
-                    orderItem.setQuantity(item.getQty());
-                    orderItem.setUnitPrice(product.getPrice());
-                    orderItem.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQty())));
-                    return orderItem;
-                })
-                .collect(Collectors.toList());
+        List<OrderItem> orderItems = new ArrayList<>(request.getItems().size());
+        for (int i = 0; i < request.getItems().size(); i++) {
+            CartItemRequest item = request.getItems().get(i);
+            UUID productId = workingSet.getProductId(i);
+            Product product = workingSet.getProduct(productId);
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setProductId(productId);
+            orderItem.setQuantity(item.getQty());
+            orderItem.setUnitPrice(product.getPrice());
+            orderItem.setLineTotal(product.getPrice().multiply(BigDecimal.valueOf(item.getQty())));
+            orderItems.add(orderItem);
+        }
 
         order.setItems(orderItems);
-        Order savedOrder = orderRepository.save(order);
-        for (CartItemRequest item : request.getItems()) {
-            updateProductStock(UUID.fromString(item.getProductId()), -item.getQty());
-        }
+        // flushed here rather than at commit, so the insert is timed on its own and runs before the
+        // stock rows are locked
+        Order savedOrder = pipelineMetrics.time(ORDER_INSERT, orderItems.size(), () -> {
+            Order saved = orderRepository.save(order);
+            orderRepository.flush();
+            return saved;
+        });
+        pipelineMetrics.time(STOCK_DECREMENT, orderItems.size(),
+                () -> productService.decrementStock(workingSet.getProductIds(), workingSet.getQuantities(),
+                        workingSet.getProducts()));
 
         return savedOrder;
     }
 
-    @Transactional
-    public void updateProductStock(UUID productId, Integer quantityChange) {
-        Product product = productService.getProductEntity(productId);
-        int newStock = product.getStock() + quantityChange;
-
-        if (newStock < 0) {
-            throw new IllegalStateException("Insufficient stock for product: " + productId);
-        }
-
-        product.setStock(newStock);
-    }
-
-    private CartResponseDto buildQuoteResponse(Map<String, Product> products,
-                                               Map<String, Integer> cartItems,
+    private CartResponseDto buildQuoteResponse(CartLines cart,
                                                BigDecimal subtotal,
                                                PromotionService.PromotionContext context) {
-        List<CartItemDto> lineItems = buildLineItems(products, cartItems, context);
+        List<CartItemDto> lineItems = buildLineItems(cart, context);
         List<AppliedPromotion> appliedPromotions = buildAppliedPromotions(context);
 
         BigDecimal totalDiscount = context.getTotalDiscount();
         BigDecimal total = subtotal.subtract(totalDiscount).max(BigDecimal.ZERO);
         String quoteId = UUID.randomUUID().toString();
 
-        return new CartResponseDto(lineItems, appliedPromotions, subtotal, totalDiscount, total, quoteId);
+        return new CartResponseDto(lineItems, appliedPromotions, subtotal, totalDiscount, total, quoteId, null, null);
     }
 
-    private List<CartItemDto> buildLineItems(Map<String, Product> products,
-                                             Map<String, Integer> cartItems,
+    /**
+     * Line items of a large cart are built in parallel chunks, each into its own positions.
+     */
+    private List<CartItemDto> buildLineItems(CartLines cart,
                                              PromotionService.PromotionContext context) {
-        List<CartItemDto> lineItems = new ArrayList<>();
-
-        for (Map.Entry<String, Integer> entry : cartItems.entrySet()) {
-            String productId = entry.getKey();
-            Product product = products.get(productId);
-            Integer quantity = entry.getValue();
-            BigDecimal unitPrice = product.getPrice();
-            BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-            BigDecimal lineDiscount = calculateLineItemDiscount(productId, quantity, context);
-            BigDecimal finalPrice = lineTotal.subtract(lineDiscount).max(BigDecimal.ZERO);
-
-            lineItems.add(new CartItemDto(
-                    productId,
-                    product.getName(),
-                    product.getCategory().name(),
-                    quantity,
-                    unitPrice,
-                    lineTotal,
-                    lineDiscount,
-                    finalPrice
-            ));
+        LargeCartMode mode = cart.largeCartMode();
+        if (mode.chunkCount(cart.size(), mode.getChunkLines()) > 1) {
+            CartItemDto[] lineItems = new CartItemDto[cart.size()];
+            mode.forEachChunk(cart.size(), mode.getChunkLines(), (chunk, from, to) -> {
+                for (int line = from; line < to; line++) {
+                    lineItems[line] = buildLineItem(cart, line, context);
+                }
+            });
+            return Arrays.asList(lineItems);
         }
 
+        List<CartItemDto> lineItems = new ArrayList<>(cart.size());
+        for (int line = 0; line < cart.size(); line++) {
+            lineItems.add(buildLineItem(cart, line, context));
+        }
         return lineItems;
     }
 
-    private BigDecimal calculateLineItemDiscount(String productId, Integer quantity,
+    private CartItemDto buildLineItem(CartLines cart, int line, PromotionService.PromotionContext context) {
+        int quantity = cart.quantity(line);
+        BigDecimal unitPrice = cart.unitPrice(line);
+        BigDecimal lineTotal = calculateLineTotal(cart, line);
+        BigDecimal lineDiscount = calculateLineItemDiscount(cart, line, context);
+        BigDecimal finalPrice = lineTotal.subtract(lineDiscount).max(BigDecimal.ZERO);
+
+        return new CartItemDto(
+                cart.productKey(line),
+                cart.productName(line),
+                cart.category(line).name(),
+                quantity,
+                unitPrice,
+                lineTotal,
+                lineDiscount,
+                finalPrice
+        );
+    }
+
+    private BigDecimal calculateLineTotal(CartLines cart, int line) {
+        if (cart.hasMinorUnitPrices()) {
+            try {
+                return Money.toBigDecimal(Money.times(cart.unitPriceMinor(line), cart.quantity(line)));
+            } catch (ArithmeticException e) {
+                // overflows a long; multiplied in BigDecimal below
+            }
+        }
+        return cart.unitPrice(line).multiply(BigDecimal.valueOf(cart.quantity(line)));
+    }
+
+    private BigDecimal calculateLineItemDiscount(CartLines cart, int line,
                                                  PromotionService.PromotionContext context) {
         return BigDecimal.ZERO;
     }
 
     private List<AppliedPromotion> buildAppliedPromotions(PromotionService.PromotionContext context) {
-        List<AppliedPromotion> appliedPromotions = new ArrayList<>();
+        List<AppliedPromotion> appliedPromotions = new ArrayList<>(context.getAppliedPromotions().size());
         int order = 1;
 
         for (PromotionService.AppliedPromotion ap : context.getAppliedPromotions()) {
@@ -272,10 +571,11 @@ public class CartService {
         return appliedPromotions;
     }
 
-    private CartConfirmResponse buildConfirmResponse(Order order, CartResponseDto quote, String request) {
+    private CartConfirmResponse buildConfirmResponse(Order order, CartResponseDto quote, String request,
+                                                     Function<UUID, Product> products) {
         List<CartItemDto> orderItems = order.getItems().stream()
                 .map(item -> {
-                    Product product = productService.getProductEntity(item.getProductId());
+                    Product product = products.apply(item.getProductId());
                     BigDecimal unitPrice = product.getPrice();
                     BigDecimal lineTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
 
@@ -320,14 +620,18 @@ public class CartService {
     private CartConfirmResponse getOrderConfirmationResponse(UUID orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
-        CartResponseDto reconstructedQuote = reconstructQuoteFromOrder(order);
-        return buildConfirmResponse(order, reconstructedQuote, "Duplicated");
+        List<UUID> productIds = order.getItems().stream()
+                .map(OrderItem::getProductId)
+                .collect(Collectors.toList());
+        Map<UUID, Product> products = productService.loadProducts(productIds);
+        CartResponseDto reconstructedQuote = reconstructQuoteFromOrder(order, products);
+        return buildConfirmResponse(order, reconstructedQuote, "Duplicated", products::get);
     }
 
-    private CartResponseDto reconstructQuoteFromOrder(Order order) {
+    private CartResponseDto reconstructQuoteFromOrder(Order order, Map<UUID, Product> products) {
         List<CartItemDto> lineItems = order.getItems().stream()
                 .map(item -> {
-                    Product product = productService.getProductEntity(item.getProductId());
+                    Product product = products.get(item.getProductId());
                     return new CartItemDto(
                             item.getProductId().toString(),
                             product.getName(),
@@ -349,7 +653,9 @@ public class CartService {
                 order.getSubtotal(),
                 order.getTotalDiscount(),
                 order.getTotal(),
-                "reconstructed-" + order.getId().toString()
+                "reconstructed-" + order.getId().toString(),
+                null,
+                null
         );
     }
 }
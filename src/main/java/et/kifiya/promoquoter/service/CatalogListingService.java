@@ -0,0 +1,67 @@
+package et.kifiya.promoquoter.service;
+
+import et.kifiya.promoquoter.dto.ResponseDTO.PageResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.ProductResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.PromotionResponseDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.exception.ValidationException;
+import et.kifiya.promoquoter.repository.CatalogListingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Paged and streamed product and promotion listings that never hold a whole table in memory.
+ * Streams run in a read-only transaction so drivers that only honour the fetch size outside
+ * auto-commit, such as PostgreSQL's, read through a cursor instead of buffering the result.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CatalogListingService {
+
+    private final CatalogListingRepository catalogListingRepository;
+
+    public PageResponse<ProductResponse> getProductPage(Category category, UUID after, int limit) {
+        checkLimit(limit);
+        return toPage(catalogListingRepository.findProducts(category, after, limit + 1), limit, ProductResponse::getId);
+    }
+
+    public void streamProducts(Category category, Consumer<ProductResponse> rows) {
+        catalogListingRepository.streamProducts(category, rows);
+    }
+
+    public PageResponse<PromotionResponseDto> getPromotionPage(PromotionType type, UUID after, int limit) {
+        checkLimit(limit);
+        return toPage(catalogListingRepository.findPromotions(type, after, limit + 1), limit,
+                PromotionResponseDto::getId);
+    }
+
+    public void streamPromotions(PromotionType type, Consumer<PromotionResponseDto> rows) {
+        catalogListingRepository.streamPromotions(type, rows);
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > catalogListingRepository.getMaxPageSize()) {
+            throw new ValidationException(
+                    "limit must be between 1 and " + catalogListingRepository.getMaxPageSize());
+        }
+    }
+
+    /**
+     * {@code rows} holds one row more than the page when another page follows.
+     */
+    private static <T> PageResponse<T> toPage(List<T> rows, int limit, Function<T, UUID> id) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(items, id.apply(items.get(limit - 1)).toString());
+    }
+}
@@ -0,0 +1,76 @@
+package et.kifiya.promoquoter.service;
+
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.exception.OutOfStockException;
+import et.kifiya.promoquoter.model.Product;
+
+import java.util.*;
+
+/**
+ * All products touched by one cart confirmation, fetched once. Validation, pricing, stock
+ * decrement and response building read from here instead of going back to the database per line.
+ */
+public final class ConfirmationWorkingSet {
+
+    private final List<CartItemRequest> items;
+    private final UUID[] productIds;
+    private final Map<UUID, Product> products;
+
+    private ConfirmationWorkingSet(List<CartItemRequest> items, UUID[] productIds, Map<UUID, Product> products) {
+        this.items = items;
+        this.productIds = productIds;
+        this.products = products;
+    }
+
+    public static ConfirmationWorkingSet load(List<CartItemRequest> items, ProductService productService) {
+        UUID[] productIds = new UUID[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            productIds[i] = UUID.fromString(items.get(i).getProductId());
+        }
+
+        Map<UUID, Product> products = productService.loadProducts(Arrays.asList(productIds));
+        for (UUID productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new IllegalArgumentException("One or more products not found");
+            }
+        }
+        return new ConfirmationWorkingSet(items, productIds, products);
+    }
+
+    public void validateStock() {
+        for (int i = 0; i < items.size(); i++) {
+            Product product = products.get(productIds[i]);
+            int requestedQuantity = items.get(i).getQty();
+            if (product.getStock() < requestedQuantity) {
+                throw new OutOfStockException(
+                        String.format("Insufficient stock for product %s. Requested: %d, Available: %d",
+                                productIds[i], requestedQuantity, product.getStock()));
+            }
+        }
+    }
+
+    public UUID[] getProductIds() {
+        return productIds;
+    }
+
+    public int[] getQuantities() {
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] = items.get(i).getQty();
+        }
+        return quantities;
+    }
+
+    public Collection<Product> getProducts() {
+        return products.values();
+    }
+
+    public Product getProduct(UUID productId) {
+        return products.get(productId);
+    }
+
+    public UUID getProductId(int line) {
+        return productIds[line];
+    }
+
+}
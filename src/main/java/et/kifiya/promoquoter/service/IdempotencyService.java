@@ -1,23 +1,105 @@
 package et.kifiya.promoquoter.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request-level idempotency for cart confirmation. Concurrent requests with the same key share one
+ * in-flight computation, and completed responses are kept in a TTL- and size-bounded cache. Only a
+ * miss on both reaches the database.
+ */
 @Service
+@Slf4j
 public class IdempotencyService {
-    private final Map<String, String> idempotencyStore = new ConcurrentHashMap<>();
 
-    public void storeIdempotencyKey(String idempotencyKey, String orderId) {
-        idempotencyStore.put(idempotencyKey, orderId);
+    private static final String DUPLICATED = "Duplicated";
+
+    private final Map<String, CompletableFuture<CartConfirmResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, CartConfirmResponse> completed;
+
+    public IdempotencyService(MeterRegistry meterRegistry,
+                              @Value("${promoquoter.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${promoquoter.idempotency.maximum-size:100000}") long maximumSize) {
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency");
     }
 
-    public Optional<String> getProcessedOrderId(String idempotencyKey) {
-        return Optional.ofNullable(idempotencyStore.get(idempotencyKey));
+    public CartConfirmResponse execute(String idempotencyKey, Supplier<CartConfirmResponse> computation) {
+        if (idempotencyKey == null) {
+            return computation.get();
+        }
+
+        CartConfirmResponse cached = completed.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return asDuplicate(cached);
+        }
+
+        CompletableFuture<CartConfirmResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CartConfirmResponse> existing = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (existing != null) {
+            log.debug("Coalescing request with Idempotency-Key {} onto in-flight computation", idempotencyKey);
+            return asDuplicate(await(existing));
+        }
+
+        try {
+            CartConfirmResponse response = computation.get();
+            completed.put(idempotencyKey, response);
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
     }
 
     public boolean isKeyProcessed(String idempotencyKey) {
-        return idempotencyStore.containsKey(idempotencyKey);
+        return completed.getIfPresent(idempotencyKey) != null;
+    }
+
+    private CartConfirmResponse await(CompletableFuture<CartConfirmResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private CartConfirmResponse asDuplicate(CartConfirmResponse response) {
+        if (DUPLICATED.equals(response.getRequestType())) {
+            return response;
+        }
+        return new CartConfirmResponse(
+                response.getOrderId(),
+                response.getStatus(),
+                response.getOrderDate(),
+                response.getItems(),
+                response.getSubtotal(),
+                response.getTotalDiscount(),
+                response.getTotal(),
+                response.getAppliedPromotions(),
+                DUPLICATED
+        );
     }
 }
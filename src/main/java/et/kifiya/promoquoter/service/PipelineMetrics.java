@@ -0,0 +1,166 @@
+package et.kifiya.promoquoter.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers for the individual stages of quoting and confirming a cart. Every stage timer is tagged
+ * with the stage name, a cart-size bucket and the outcome, and publishes a percentile histogram so
+ * latency can be broken down per stage rather than only per request. Meters are resolved once per
+ * tag combination and kept, so recording does not allocate tags on every call.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_TIMER = "promoquoter.pipeline.stage";
+    public static final String STRATEGY_TIMER = "promoquoter.pipeline.strategy";
+    public static final String CART_LINES = "promoquoter.pipeline.cart.lines";
+    public static final String CONFIRM_ATTEMPTS = "promoquoter.pipeline.confirm.attempts";
+
+    public static final String PRODUCT_FETCH = "product.fetch";
+    public static final String PROMOTION_FETCH = "promotion.fetch";
+    public static final String PROMOTION_APPLY = "promotion.apply";
+    public static final String RESPONSE_BUILD = "response.build";
+    public static final String STOCK_VALIDATION = "stock.validation";
+    public static final String ORDER_CLAIM = "order.claim";
+    public static final String ORDER_INSERT = "order.insert";
+    public static final String STOCK_DECREMENT = "stock.decrement";
+    public static final String CONFIRM_ATTEMPT = "confirm.attempt";
+
+    public static final String SUCCESS = "success";
+    public static final String ERROR = "error";
+    public static final String CONFLICT = "conflict";
+    public static final String APPLIED = "applied";
+    public static final String NOT_APPLIED = "not_applied";
+
+    private static final String[] CART_SIZE_BUCKETS = {"1", "2-5", "6-20", "21-100", "101+"};
+    private static final String[] STAGE_OUTCOMES = {SUCCESS, ERROR, CONFLICT};
+
+    private final ConcurrentMap<String, Timer[]> resolvedStageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> resolvedCartLines = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> resolvedConfirmAttempts = new ConcurrentHashMap<>();
+
+    private final Meter.MeterProvider<Timer> stageTimers;
+    private final Meter.MeterProvider<DistributionSummary> cartLines;
+    private final Meter.MeterProvider<DistributionSummary> confirmAttempts;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.stageTimers = Timer.builder(STAGE_TIMER)
+                .description("Time spent in one stage of the quote or confirm pipeline")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.cartLines = DistributionSummary.builder(CART_LINES)
+                .description("Number of lines in carts entering the pipeline")
+                .baseUnit("lines")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.confirmAttempts = DistributionSummary.builder(CONFIRM_ATTEMPTS)
+                .description("Attempts needed per cart confirmation (row-lock retries)")
+                .baseUnit("attempts")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+    }
+
+    /**
+     * Runs {@code stage}, recording its duration with outcome {@code success} or {@code error}.
+     */
+    public <T> T time(String stage, int cartLines, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            T result = action.get();
+            outcome = SUCCESS;
+            return result;
+        } finally {
+            record(stage, cartLines, outcome, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String stage, int cartLines, Runnable action) {
+        long start = System.nanoTime();
+        String outcome = ERROR;
+        try {
+            action.run();
+            outcome = SUCCESS;
+        } finally {
+            record(stage, cartLines, outcome, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String stage, int cartLines, String outcome, long nanos) {
+        Timer[] timers = resolvedStageTimers.get(stage);
+        if (timers == null) {
+            timers = resolvedStageTimers.computeIfAbsent(stage,
+                    ignored -> new Timer[CART_SIZE_BUCKETS.length * STAGE_OUTCOMES.length]);
+        }
+        int bucket = cartSizeBucketIndex(cartLines);
+        int slot = bucket * STAGE_OUTCOMES.length + stageOutcomeIndex(outcome);
+        Timer timer = timers[slot];
+        if (timer == null) {
+            // racing threads resolve the same meter from the registry
+            timer = stageTimers.withTags("stage", stage, "cart.size", CART_SIZE_BUCKETS[bucket], "outcome", outcome);
+            timers[slot] = timer;
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCart(String operation, int lines) {
+        DistributionSummary summary = resolvedCartLines.get(operation);
+        if (summary == null) {
+            summary = resolvedCartLines.computeIfAbsent(operation, op -> cartLines.withTags("operation", op));
+        }
+        summary.record(lines);
+    }
+
+    public void recordConfirmAttempts(int attempts, String outcome) {
+        DistributionSummary summary = resolvedConfirmAttempts.get(outcome);
+        if (summary == null) {
+            summary = resolvedConfirmAttempts.computeIfAbsent(outcome, o -> confirmAttempts.withTags("outcome", o));
+        }
+        summary.record(attempts);
+    }
+
+    /**
+     * Coarse cart-size buckets, so the tag stays low-cardinality.
+     */
+    public static String cartSizeBucket(int lines) {
+        return CART_SIZE_BUCKETS[cartSizeBucketIndex(lines)];
+    }
+
+    public static int cartSizeBucketCount() {
+        return CART_SIZE_BUCKETS.length;
+    }
+
+    public static int cartSizeBucketIndex(int lines) {
+        if (lines <= 1) {
+            return 0;
+        }
+        if (lines <= 5) {
+            return 1;
+        }
+        if (lines <= 20) {
+            return 2;
+        }
+        if (lines <= 100) {
+            return 3;
+        }
+        return 4;
+    }
+
+    private static int stageOutcomeIndex(String outcome) {
+        for (int i = 0; i < STAGE_OUTCOMES.length; i++) {
+            if (STAGE_OUTCOMES[i].equals(outcome)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown stage outcome: " + outcome);
+    }
+}
@@ -1,29 +1,38 @@
 package et.kifiya.promoquoter.service;
 
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
 import et.kifiya.promoquoter.dto.ResponseDTO.ProductResponse;
 import et.kifiya.promoquoter.exception.OutOfStockException;
 import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
 import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
 import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.repository.ProductStockRepository;
+import et.kifiya.promoquoter.reservation.ReservationService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductStockRepository productStockRepository;
+    private final ProductCatalogCache productCatalogCache;
+    private final EntityManager entityManager;
+    private final ReservationService reservationService;
 
+    @Transactional
     public List<ProductResponse> createProducts(List<ProductRequestDto> requests) {
         List<Product> products = requests.stream()
-                .map(this::mapToProduct)
+                .map(ProductService::mapToProduct)
                 .collect(Collectors.toList());
 
         List<Product> savedProducts = productRepository.saveAll(products);
@@ -33,13 +42,6 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-    }
-
     @Transactional(readOnly = true)
     public ProductResponse getProduct(UUID id) {
         Product product = productRepository.findById(id)
@@ -49,47 +51,104 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public Product getProductEntity(UUID id) {
-        return productRepository.findById(id)
+        Product product = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        productCatalogCache.observe(product);
+        return product;
     }
 
-    @Transactional(readOnly = true)
-    public List<Product> getProductsByIds(List<UUID> productIds) {
-        return productRepository.findAllById(productIds);
+    /**
+     * Loads managed products for a write path in a single query and refreshes the catalog cache.
+     */
+    @Transactional
+    public Map<UUID, Product> loadProducts(Collection<UUID> productIds) {
+        List<Product> products = productRepository.findAllById(productIds);
+        Map<UUID, Product> byId = new HashMap<>(products.size() * 2);
+        for (Product product : products) {
+            byId.put(product.getId(), product);
+            productCatalogCache.observe(product);
+        }
+        return byId;
+    }
+
+    /**
+     * Catalog data for the quote path, served from the near-cache as immutable records without
+     * stock and keyed by product id; unknown ids are absent. Misses are loaded by a projection
+     * query, so no entity is hydrated and no transaction is started here.
+     */
+    public Map<UUID, ProductView> getProductViews(Collection<UUID> productIds) {
+        return productCatalogCache.getAll(productIds);
+    }
+
+    /**
+     * Changes whenever cached name, category or price data is found to be stale.
+     */
+    public long getCatalogVersion() {
+        return productCatalogCache.getCatalogVersion();
     }
 
+    @Transactional
     public Product updateStock(UUID productId, Integer quantityChange) {
-        Product product = getProductEntity(productId);
-        int newStock = product.getStock() + quantityChange;
-        if (newStock < 0) {
+        if (!productStockRepository.adjustStock(productId, quantityChange)) {
+            if (!productRepository.existsById(productId)) {
+                throw new IllegalArgumentException("Product not found with id: " + productId);
+            }
             throw new IllegalStateException("Insufficient stock for product: " + productId);
         }
-        product.setStock(newStock);
-        return productRepository.save(product);
+        afterCommit(() -> stockChanged(productId));
+        return getProductEntity(productId);
     }
 
-    public void validateStockAvailability(UUID productId, Integer requestedQuantity) {
-        Product product = getProductEntity(productId);
-        if (product.getStock() < requestedQuantity) {
-            throw new OutOfStockException(
-                    String.format("Insufficient stock for product %s. Requested: %d, Available: %d",
-                            productId, requestedQuantity, product.getStock()));
-        }
-    }
+    /**
+     * Applies all stock decrements of an order as one batch of guarded updates. Lines that would
+     * drive stock negative are reported together; the caller's transaction rolls back the rest.
+     * The updates bypass the persistence context, so {@code loaded}, the caller's managed entities
+     * of these products, are detached: their stock and version are stale from here on and must
+     * neither be flushed nor read as current.
+     */
     @Transactional
-    public void updateProductStock(UUID productId, Integer quantityChange) {
-        Product product = getProductEntity(productId);
-        int newStock = product.getStock() + quantityChange;
-
-        if (newStock < 0) {
-            throw new OutOfStockException(
-                    String.format("Insufficient stock for product %s. Requested: %d, Available: %d",
-                            productId, quantityChange, product.getStock()));
+    public void decrementStock(UUID[] productIds, int[] quantities, Collection<Product> loaded) {
+        boolean[] applied = productStockRepository.decrementStock(productIds, quantities);
+        for (Product product : loaded) {
+            entityManager.detach(product);
         }
+        StringBuilder failures = null;
+        for (int i = 0; i < applied.length; i++) {
+            if (!applied[i]) {
+                failures = failures == null ? new StringBuilder() : failures.append("; ");
+                failures.append(String.format("product %s (requested %d)", productIds[i], quantities[i]));
+            }
+        }
+        if (failures != null) {
+            throw new OutOfStockException("Insufficient stock for " + failures);
+        }
+    }
 
-        product.setStock(newStock);
+    /**
+     * Stock changed outside a confirmation: neither the cached view nor the reservation ledger saw it.
+     */
+    private void stockChanged(UUID productId) {
+        productCatalogCache.invalidate(productId);
+        reservationService.reconcile(List.of(productId));
+    }
+
+    /**
+     * Runs {@code action} once the surrounding transaction has committed, so a concurrent reader
+     * cannot reload the old row into the cache in between.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-    private Product mapToProduct(ProductRequestDto request) {
+    static Product mapToProduct(ProductRequestDto request) {
         Product product = new Product();
         product.setName(request.getName());
         product.setCategory(request.getCategory());
@@ -3,48 +3,108 @@ package et.kifiya.promoquoter.service;
 
 import et.kifiya.promoquoter.dto.ResponseDTO.PromotionResponseDto;
 import et.kifiya.promoquoter.dto.requestDTO.PromotionRequestDto;
+import et.kifiya.promoquoter.exception.ValidationException;
 import et.kifiya.promoquoter.enums.PromotionType;
 import et.kifiya.promoquoter.model.Product;
 import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BoundPromotion;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.Money;
+import et.kifiya.promoquoter.promotion.PromotionIndex;
+import et.kifiya.promoquoter.promotion.PromotionStrategies;
 import et.kifiya.promoquoter.promotion.PromotionStrategy;
+import et.kifiya.promoquoter.promotion.PromotionTrace;
 import et.kifiya.promoquoter.repository.PromotionRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PromotionService {
 
     private final PromotionRepository promotionRepository;
-    private final List<PromotionStrategy> strategies;
+    private final PromotionStrategies strategies;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<PromotionIndex> snapshot = new AtomicReference<>();
+    private final Object publishLock = new Object();
+
+    private static final PromotionType[] PROMOTION_TYPES = PromotionType.values();
+
+    // per-thread scratch for the strategy timings of one cart; applyPromotions never re-enters on a thread
+    private static final ThreadLocal<StrategyTally> STRATEGY_TALLY = ThreadLocal.withInitial(StrategyTally::new);
+
+    // [type, including one slot for untyped promotions][cart-size bucket][applied], filled on first use
+    private final Timer[] strategyTimers =
+            new Timer[(PROMOTION_TYPES.length + 1) * PipelineMetrics.cartSizeBucketCount() * 2];
+
+    public PromotionService(PromotionRepository promotionRepository,
+                            List<PromotionStrategy> strategies,
+                            MeterRegistry meterRegistry) {
+        this.promotionRepository = promotionRepository;
+        this.strategies = PromotionStrategies.of(strategies);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerSnapshotMetrics() {
+        Gauge.builder("promoquoter.promotions.snapshot.version", snapshot,
+                        ref -> ref.get() != null ? ref.get().getVersion() : 0)
+                .description("Version of the active promotion snapshot used for quoting")
+                .register(meterRegistry);
+        Gauge.builder("promoquoter.promotions.snapshot.size", snapshot,
+                        ref -> ref.get() != null ? ref.get().size() : 0)
+                .description("Number of promotions compiled into the active snapshot")
+                .register(meterRegistry);
+    }
 
+    /**
+     * Saves the promotions, all or none: a promotion no strategy can evaluate is rejected here
+     * instead of being saved and then skipped by every snapshot compile.
+     */
+    @Transactional
     public List<PromotionResponseDto> createPromotions(List<PromotionRequestDto> requests) {
-        List<Promotion> promotions = requests.stream()
-                .map(this::mapToPromotion)
-                .collect(Collectors.toList());
+        List<Promotion> promotions = new ArrayList<>(requests.size());
+        List<String> problems = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Promotion promotion = mapToPromotion(requests.get(i));
+            String problem = strategies.validate(promotion);
+            if (problem != null) {
+                problems.add("promotions[" + i + "]: " + problem);
+            }
+            promotions.add(promotion);
+        }
+        if (!problems.isEmpty()) {
+            throw new ValidationException(String.join("; ", problems));
+        }
 
         List<Promotion> savedPromotions = promotionRepository.saveAll(promotions);
+        afterCommit(() -> mergeIntoSnapshot(savedPromotions));
 
         return savedPromotions.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
-    public List<PromotionResponseDto> getAllPromotions() {
-        return promotionRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Why {@code request} would be rejected by {@link #createPromotions}, or null when it would not.
+     */
+    public String validate(PromotionRequestDto request) {
+        return strategies.validate(mapToPromotion(request));
     }
 
     @Transactional(readOnly = true)
@@ -64,44 +124,202 @@ public class PromotionService {
         return promotionRepository.findByTypeAndActiveTrue(type);
     }
 
+    /**
+     * Lock-free read of the current promotion snapshot; the first call loads it from the database.
+     */
+    public PromotionIndex getPromotionIndex() {
+        PromotionIndex current = snapshot.get();
+        return current != null ? current : reloadSnapshot();
+    }
+
+    public PromotionIndex reloadSnapshot() {
+        return publish(current -> promotionRepository.findByActiveTrueOrderByPriority());
+    }
+
+    /**
+     * Copy-on-write update of the snapshot with promotions that were created or changed. Must be
+     * called after the change has committed. With no snapshot yet, or one still being loaded, the
+     * publish lock makes this wait for it, so a load that read the database before the change
+     * committed cannot hide it; the first snapshot is loaded in full.
+     */
+    public void mergeIntoSnapshot(Collection<Promotion> changed) {
+        Set<UUID> changedIds = changed.stream().map(Promotion::getId).collect(Collectors.toSet());
+        publish(current -> {
+            List<Promotion> merged = new ArrayList<>(current.getPromotions().size() + changed.size());
+            for (Promotion promotion : current.getPromotions()) {
+                if (!changedIds.contains(promotion.getId())) {
+                    merged.add(promotion);
+                }
+            }
+            merged.addAll(changed);
+            return merged;
+        });
+    }
+
+    private PromotionIndex publish(Function<PromotionIndex, List<Promotion>> change) {
+        synchronized (publishLock) {
+            long start = System.nanoTime();
+            PromotionIndex current = snapshot.get();
+            List<Promotion> promotions = current != null
+                    ? change.apply(current)
+                    : promotionRepository.findByActiveTrueOrderByPriority();
+            long version = current != null ? current.getVersion() + 1 : 1;
+
+            PromotionIndex next = PromotionIndex.compile(version, promotions, strategies);
+            snapshot.set(next);
+
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("promoquoter.promotions.snapshot.rebuild")
+                    .description("Time to rebuild and publish the active promotion snapshot")
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Published promotion snapshot v{} with {} promotions", version, next.size());
+            return next;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     public PromotionContext applyPromotions(List<Promotion> promotions,
                                             Map<String, Product> products,
                                             Map<String, Integer> cartItems) {
-        strategies.forEach(strategy -> log.info("Strategy: {}", strategy.getClass().getSimpleName()));
+        return applyPromotions(PromotionIndex.compile(-1, promotions, strategies), products, cartItems);
+    }
 
-        PromotionContext context = new PromotionContext(products, cartItems);
+    public PromotionContext applyPromotions(PromotionIndex index,
+                                            Map<String, Product> products,
+                                            Map<String, Integer> cartItems) {
+        return applyPromotions(index, CartLines.of(products, cartItems));
+    }
 
-        List<Promotion> sortedPromotions = promotions.stream()
-                .filter(Promotion::isActive)
-                .sorted(Comparator.comparing(Promotion::getPriority))
-                .collect(Collectors.toList());
+    public PromotionContext applyPromotions(PromotionIndex index, CartLines cart) {
+        return applyPromotions(index, cart, null);
+    }
 
-        for (Promotion promotion : sortedPromotions) {
-            boolean strategyFound = false;
-            for (PromotionStrategy strategy : strategies) {
-                if (strategy.supports(promotion)) {
-                    strategyFound = true;
+    /**
+     * Applies the candidate promotions in priority order. When {@code trace} is non-null every
+     * evaluation is also recorded there, with its own timing, and the strategy timers are left alone
+     * so traced runs do not skew them; a null trace keeps the pricing path free of tracing work.
+     * Strategies only read the cart, so in a large cart the candidates are evaluated in parallel and
+     * their results then applied in the same priority order.
+     */
+    public PromotionContext applyPromotions(PromotionIndex index, CartLines cart, PromotionTrace trace) {
+        PromotionContext context = new PromotionContext(cart);
+        List<BoundPromotion> candidates = index.candidates(cart);
+        if (candidates.isEmpty()) {
+            return context;
+        }
+        StrategyTally tally = trace == null ? STRATEGY_TALLY.get().reset() : null;
+        LargeCartMode mode = cart.largeCartMode();
+        PromotionStrategy.PromotionResult[] results = null;
+        long[] nanos = null;
+        if (trace == null && candidates.size() > 1 && mode.appliesTo(cart.size())) {
+            PromotionStrategy.PromotionResult[] parallelResults = new PromotionStrategy.PromotionResult[candidates.size()];
+            long[] parallelNanos = new long[candidates.size()];
+            mode.forEachChunk(candidates.size(), 1, (chunk, from, to) -> {
+                BoundPromotion bound = candidates.get(chunk);
+                long start = System.nanoTime();
+                parallelResults[chunk] = bound.getStrategy().apply(bound, cart, null);
+                parallelNanos[chunk] = System.nanoTime() - start;
+            });
+            results = parallelResults;
+            nanos = parallelNanos;
+        }
 
-                    PromotionStrategy.PromotionResult result =
-                            strategy.apply(promotion, context.getProducts(), context.getCartItems());
+        for (int i = 0; i < candidates.size(); i++) {
+            BoundPromotion bound = candidates.get(i);
+            Promotion promotion = bound.getPromotion();
+            int type = promotion.getType() != null ? promotion.getType().ordinal() : PROMOTION_TYPES.length;
+            PromotionStrategy.PromotionResult result;
+            long elapsed;
+            if (results != null) {
+                result = results[i];
+                elapsed = nanos[i];
+            } else if (trace == null) {
+                long start = System.nanoTime();
+                result = bound.getStrategy().apply(bound, cart, null);
+                elapsed = System.nanoTime() - start;
+            } else {
+                trace.start(promotion);
+                long start = System.nanoTime();
+                result = bound.getStrategy().apply(bound, cart, trace);
+                elapsed = System.nanoTime() - start;
+                trace.finish(result, elapsed);
+            }
+            boolean applied = result.signum() > 0;
+            if (applied) {
+                context.addAppliedPromotion(promotion, result);
+            }
+            if (tally != null) {
+                tally.add(type, elapsed, applied);
+            }
+        }
 
+        if (tally != null) {
+            recordStrategyTimes(cart.size(), tally);
+        }
+        return context;
+    }
 
-                    if (result.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                        context.addAppliedPromotion(promotion, result);
-                    }
-                    break;
-                }
+    /**
+     * One sample per promotion type per cart: the time spent in that type's strategy across all its
+     * candidate promotions, rather than one sample per promotion.
+     */
+    private void recordStrategyTimes(int lines, StrategyTally tally) {
+        int bucket = PipelineMetrics.cartSizeBucketIndex(lines);
+        for (int type = 0; type < tally.seen.length; type++) {
+            if (!tally.seen[type]) {
+                continue;
             }
-
-            if (!strategyFound) {
-                log.warn("No strategy found for promotion: {} (Type: {})",
-                        promotion.getName(), promotion.getType());
+            boolean applied = tally.applied[type];
+            int slot = (type * PipelineMetrics.cartSizeBucketCount() + bucket) * 2 + (applied ? 1 : 0);
+            Timer timer = strategyTimers[slot];
+            if (timer == null) {
+                timer = Timer.builder(PipelineMetrics.STRATEGY_TIMER)
+                        .description("Time spent applying one promotion type's strategy to a cart")
+                        .tag("type", type < PROMOTION_TYPES.length ? PROMOTION_TYPES[type].name() : "UNKNOWN")
+                        .tag("cart.size", PipelineMetrics.cartSizeBucket(lines))
+                        .tag("outcome", applied ? PipelineMetrics.APPLIED : PipelineMetrics.NOT_APPLIED)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry);
+                strategyTimers[slot] = timer;
             }
+            timer.record(tally.nanos[type], TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class StrategyTally {
+        // one extra slot for promotions without a type
+        private final long[] nanos = new long[PROMOTION_TYPES.length + 1];
+        private final boolean[] applied = new boolean[PROMOTION_TYPES.length + 1];
+        private final boolean[] seen = new boolean[PROMOTION_TYPES.length + 1];
+
+        StrategyTally reset() {
+            Arrays.fill(nanos, 0L);
+            Arrays.fill(applied, false);
+            Arrays.fill(seen, false);
+            return this;
+        }
+
+        void add(int type, long elapsed, boolean appliedHere) {
+            nanos[type] += elapsed;
+            applied[type] |= appliedHere;
+            seen[type] = true;
         }
-        return context;
     }
 
-    private Promotion mapToPromotion(PromotionRequestDto request) {
+    static Promotion mapToPromotion(PromotionRequestDto request) {
         Promotion promotion = new Promotion();
         promotion.setName(request.getName());
         promotion.setType(request.getType());
@@ -131,32 +349,42 @@ public class PromotionService {
     }
 
     public static class PromotionContext {
-        private final Map<String, Product> products;
-        private final Map<String, Integer> cartItems;
+        private final CartLines cart;
+        // discounts held in minor units are summed as longs and only converted when read
         private BigDecimal totalDiscount = BigDecimal.ZERO;
+        private long totalDiscountMinor;
+        private boolean anyMinorUnits;
         private final List<AppliedPromotion> appliedPromotions = new java.util.ArrayList<>();
 
-        public PromotionContext(Map<String, Product> products,
-                                Map<String, Integer> cartItems) {
-            this.products = products;
-            this.cartItems = cartItems;
+        public PromotionContext(CartLines cart) {
+            this.cart = cart;
         }
 
         public void addAppliedPromotion(Promotion promotion, PromotionStrategy.PromotionResult result) {
-            totalDiscount = totalDiscount.add(result.getDiscount());
+            if (result.isMinorUnits()) {
+                addMinorUnits(result.getDiscountMinor());
+            } else {
+                totalDiscount = totalDiscount.add(result.getDiscount());
+            }
             appliedPromotions.add(new AppliedPromotion(promotion, result));
         }
 
-        public Map<String, Product> getProducts() {
-            return products;
+        private void addMinorUnits(long discountMinor) {
+            try {
+                totalDiscountMinor = Math.addExact(totalDiscountMinor, discountMinor);
+            } catch (ArithmeticException e) {
+                totalDiscount = totalDiscount.add(Money.toBigDecimal(totalDiscountMinor));
+                totalDiscountMinor = discountMinor;
+            }
+            anyMinorUnits = true;
         }
 
-        public Map<String, Integer> getCartItems() {
-            return cartItems;
+        public CartLines getCart() {
+            return cart;
         }
 
         public BigDecimal getTotalDiscount() {
-            return totalDiscount;
+            return anyMinorUnits ? totalDiscount.add(Money.toBigDecimal(totalDiscountMinor)) : totalDiscount;
         }
 
         public List<AppliedPromotion> getAppliedPromotions() {
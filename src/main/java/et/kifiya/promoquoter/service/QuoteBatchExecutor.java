@@ -0,0 +1,90 @@
+package et.kifiya.promoquoter.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Fixed-size pool for batch quoting. A batch is split into one contiguous chunk per worker, so
+ * the number of queued tasks stays bounded by the pool size regardless of how many carts arrive.
+ */
+@Component
+public class QuoteBatchExecutor {
+
+    private final int parallelism;
+    private final int maxBatchSize;
+    private final ExecutorService pool;
+
+    public QuoteBatchExecutor(@Value("${promoquoter.batch-quote.parallelism:0}") int parallelism,
+                              @Value("${promoquoter.batch-quote.max-carts:50000}") int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "quote-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Applies {@code task} to every index in {@code [0, count)} and returns the results in index order.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> List<R> map(int count, IntFunction<R> task) {
+        if (count == 0) {
+            return List.of();
+        }
+        Object[] results = new Object[count];
+        int chunks = Math.min(parallelism, count);
+        int chunkSize = (count + chunks - 1) / chunks;
+
+        List<Future<?>> futures = new ArrayList<>(chunks);
+        for (int from = 0; from < count; from += chunkSize) {
+            int start = from;
+            int end = Math.min(from + chunkSize, count);
+            futures.add(pool.submit(() -> {
+                for (int i = start; i < end; i++) {
+                    results[i] = task.apply(i);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch quote interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Batch quote failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package et.kifiya.promoquoter.workload;
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact gzip'd binary file holding a generated workload, so large datasets can be reloaded
+ * without regenerating them. Rows are streamed in both directions.
+ */
+public final class WorkloadDataset {
+
+    private static final int MAGIC = 0x50515744;
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte PRODUCT = 'P';
+    private static final byte PROMOTION = 'R';
+    private static final byte END = 'E';
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final PromotionType[] PROMOTION_TYPES = PromotionType.values();
+
+    private WorkloadDataset() {
+    }
+
+    public static Writer writer(Path file) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        return new Writer(out);
+    }
+
+    /**
+     * Streams every row in {@code file} into {@code sink}.
+     *
+     * @return the number of rows read
+     */
+    public static long read(Path file, WorkloadSink sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a workload dataset: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported workload dataset version " + version + ": " + file);
+            }
+
+            long rows = 0;
+            while (true) {
+                byte tag = in.readByte();
+                if (tag == PRODUCT) {
+                    sink.acceptProduct(readProduct(in));
+                } else if (tag == PROMOTION) {
+                    sink.acceptPromotion(readPromotion(in));
+                } else if (tag == END) {
+                    return rows;
+                } else {
+                    throw new IOException("Corrupt workload dataset, unexpected tag " + tag + ": " + file);
+                }
+                rows++;
+            }
+        }
+    }
+
+    public static final class Writer implements WorkloadSink, Closeable {
+
+        private final DataOutputStream out;
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void acceptProduct(Product product) {
+            try {
+                out.writeByte(PRODUCT);
+                writeUuid(out, product.getId());
+                out.writeUTF(product.getName());
+                out.writeByte(product.getCategory().ordinal());
+                writeDecimal(out, product.getPrice());
+                out.writeInt(product.getStock());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void acceptPromotion(Promotion promotion) {
+            try {
+                out.writeByte(PROMOTION);
+                writeUuid(out, promotion.getId());
+                out.writeUTF(promotion.getName());
+                out.writeByte(promotion.getType().ordinal());
+                out.writeBoolean(promotion.getCategory() != null);
+                if (promotion.getCategory() != null) {
+                    out.writeUTF(promotion.getCategory());
+                }
+                out.writeBoolean(promotion.getDiscountPercent() != null);
+                if (promotion.getDiscountPercent() != null) {
+                    writeDecimal(out, promotion.getDiscountPercent());
+                }
+                out.writeBoolean(promotion.getProductId() != null);
+                if (promotion.getProductId() != null) {
+                    writeUuid(out, promotion.getProductId());
+                }
+                out.writeInt(promotion.getBuyQuantity() != null ? promotion.getBuyQuantity() : -1);
+                out.writeInt(promotion.getGetQuantity() != null ? promotion.getGetQuantity() : -1);
+                out.writeInt(promotion.getPriority() != null ? promotion.getPriority() : 0);
+                out.writeBoolean(promotion.isActive());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(END);
+            out.close();
+        }
+    }
+
+    private static Product readProduct(DataInputStream in) throws IOException {
+        Product product = new Product();
+        product.setId(readUuid(in));
+        product.setName(in.readUTF());
+        product.setCategory(CATEGORIES[in.readByte()]);
+        product.setPrice(readDecimal(in));
+        product.setStock(in.readInt());
+        product.setVersion(0L);
+        return product;
+    }
+
+    private static Promotion readPromotion(DataInputStream in) throws IOException {
+        Promotion promotion = new Promotion();
+        promotion.setId(readUuid(in));
+        promotion.setName(in.readUTF());
+        promotion.setType(PROMOTION_TYPES[in.readByte()]);
+        if (in.readBoolean()) {
+            promotion.setCategory(in.readUTF());
+        }
+        if (in.readBoolean()) {
+            promotion.setDiscountPercent(readDecimal(in));
+        }
+        if (in.readBoolean()) {
+            promotion.setProductId(readUuid(in));
+        }
+        int buyQuantity = in.readInt();
+        promotion.setBuyQuantity(buyQuantity >= 0 ? buyQuantity : null);
+        int getQuantity = in.readInt();
+        promotion.setGetQuantity(getQuantity >= 0 ? getQuantity : null);
+        promotion.setPriority(in.readInt());
+        promotion.setActive(in.readBoolean());
+        return promotion;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
@@ -0,0 +1,174 @@
+package et.kifiya.promoquoter.workload;
+
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic synthetic catalog, promotions and carts. Product {@code i} is a pure function of
+ * the seed and {@code i}, so any product can be regenerated or referenced by id without keeping
+ * the catalog in memory. Product index 0 is the most popular SKU.
+ */
+public class WorkloadGenerator {
+
+    private static final long PRODUCT_SALT = 0x5EED_0001L;
+    private static final long PROMOTION_SALT = 0x5EED_0002L;
+    private static final long CART_SALT = 0x5EED_0003L;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final CustomerSegment[] SEGMENTS = CustomerSegment.values();
+
+    private final WorkloadSpec spec;
+    private final ZipfSampler popularity;
+    private final ZipfSampler cartPopularity;
+    private final ZipfSampler categories;
+
+    public WorkloadGenerator(WorkloadSpec spec) {
+        if (spec.getMinCartLines() < 1 || spec.getMaxCartLines() < spec.getMinCartLines()) {
+            throw new IllegalArgumentException("Cart lines must satisfy 1 <= min <= max");
+        }
+        this.spec = spec;
+        this.popularity = new ZipfSampler(spec.getProducts(), spec.getPopularitySkew());
+        this.cartPopularity = new ZipfSampler(spec.getProducts(), spec.effectiveCartSkew());
+        this.categories = new ZipfSampler(CATEGORIES.length, spec.getCategorySkew());
+    }
+
+    public WorkloadSpec getSpec() {
+        return spec;
+    }
+
+    public UUID productId(long index) {
+        return uuid(spec.getSeed() ^ PRODUCT_SALT, index);
+    }
+
+    public Product product(long index) {
+        SplittableRandom random = randomFor(PRODUCT_SALT, index);
+        Category category = CATEGORIES[(int) categories.sample(random) - 1];
+
+        Product product = new Product();
+        product.setId(productId(index));
+        product.setName(String.format("SKU-%08d %s", index, category.name()));
+        product.setCategory(category);
+        product.setPrice(price(random));
+        product.setStock(random.nextInt(spec.getMaxStock() + 1));
+        product.setVersion(0L);
+        return product;
+    }
+
+    public Promotion promotion(int index) {
+        SplittableRandom random = randomFor(PROMOTION_SALT, index);
+
+        Promotion promotion = new Promotion();
+        promotion.setId(uuid(spec.getSeed() ^ PROMOTION_SALT, index));
+        promotion.setPriority(random.nextInt(10));
+        promotion.setActive(random.nextInt(20) != 0);
+        if (random.nextDouble() < spec.getBogoShare()) {
+            long target = popularity.sample(random) - 1;
+            promotion.setType(PromotionType.BUY_X_GET_Y);
+            promotion.setProductId(productId(target));
+            promotion.setBuyQuantity(1 + random.nextInt(3));
+            promotion.setGetQuantity(1 + random.nextInt(2));
+            promotion.setName(String.format("PROMO-%05d Buy %d Get %d SKU-%08d", index,
+                    promotion.getBuyQuantity(), promotion.getGetQuantity(), target));
+        } else {
+            Category category = CATEGORIES[(int) categories.sample(random) - 1];
+            promotion.setType(PromotionType.PERCENT_OFF_CATEGORY);
+            promotion.setCategory(category.name());
+            promotion.setDiscountPercent(BigDecimal.valueOf(5 + random.nextInt(36)));
+            promotion.setName(String.format("PROMO-%05d %s%% off %s", index,
+                    promotion.getDiscountPercent(), category.name()));
+        }
+        return promotion;
+    }
+
+    /**
+     * Pushes every product, then every promotion, into {@code sink}.
+     */
+    public void generate(WorkloadSink sink) {
+        for (long i = 0; i < spec.getProducts(); i++) {
+            sink.acceptProduct(product(i));
+        }
+        for (int i = 0; i < spec.getPromotions(); i++) {
+            sink.acceptPromotion(promotion(i));
+        }
+    }
+
+    /**
+     * An endless, reproducible stream of carts; {@code streamId} selects an independent stream,
+     * so concurrent load workers can each replay their own.
+     */
+    public Stream<CartRequest> carts(long streamId) {
+        SplittableRandom random = randomFor(CART_SALT, streamId);
+        return Stream.generate(() -> cart(random));
+    }
+
+    private CartRequest cart(SplittableRandom random) {
+        int lines = spec.getMinCartLines() == spec.getMaxCartLines()
+                ? spec.getMinCartLines()
+                : random.nextInt(spec.getMinCartLines(), spec.getMaxCartLines() + 1);
+        lines = (int) Math.min(lines, spec.getProducts());
+
+        Set<Long> picked = new HashSet<>(lines * 2);
+        List<CartItemRequest> items = new ArrayList<>(lines);
+        while (items.size() < lines) {
+            long index = cartPopularity.sample(random) - 1;
+            if (!picked.add(index)) {
+                // heavy skew keeps re-drawing the head; fall back to a uniform pick
+                index = random.nextLong(spec.getProducts());
+                if (!picked.add(index)) {
+                    continue;
+                }
+            }
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(productId(index).toString());
+            item.setQty(1 + random.nextInt(spec.getMaxQuantity()));
+            items.add(item);
+        }
+
+        CartRequest request = new CartRequest();
+        request.setItems(items);
+        request.setCustomerSegment(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        return request;
+    }
+
+    private BigDecimal price(SplittableRandom random) {
+        // log-normal around 30.00, priced to end in .99
+        double gaussian = nextGaussian(random);
+        long whole = Math.max(1, Math.min(5_000, Math.round(Math.exp(Math.log(30) + gaussian))));
+        return BigDecimal.valueOf(whole * 100 - 1, 2);
+    }
+
+    private SplittableRandom randomFor(long salt, long index) {
+        return new SplittableRandom(mix(spec.getSeed() ^ salt, index));
+    }
+
+    private static double nextGaussian(SplittableRandom random) {
+        double u1 = 1d - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2d * Math.log(u1)) * Math.cos(2d * Math.PI * u2);
+    }
+
+    /**
+     * A version-4 shaped UUID whose low bits are the index itself, so ids never collide.
+     */
+    private static UUID uuid(long salt, long index) {
+        long msb = (mix(salt, index) & ~0xF000L) | 0x4000L;
+        long lsb = (index & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static long mix(long salt, long index) {
+        long z = salt + index * 0x9E37_79B9_7F4A_7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+}
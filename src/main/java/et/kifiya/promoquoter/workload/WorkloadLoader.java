@@ -0,0 +1,95 @@
+package et.kifiya.promoquoter.workload;
+
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a workload into the {@code product} and {@code promotion} tables with JDBC batch inserts,
+ * bypassing the persistence context so millions of rows load in bounded memory.
+ */
+@Slf4j
+public class WorkloadLoader implements WorkloadSink, AutoCloseable {
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO product (id, name, category, price, stock, version) VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_PROMOTION =
+            "INSERT INTO promotion (id, name, type, category, discount_percent, product_id, buy_quantity, "
+                    + "get_quantity, priority, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final List<Object[]> products;
+    private final List<Object[]> promotions;
+    private long productsLoaded;
+    private long promotionsLoaded;
+
+    public WorkloadLoader(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.products = new ArrayList<>(batchSize);
+        this.promotions = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void acceptProduct(Product product) {
+        products.add(new Object[]{
+                product.getId(), product.getName(), product.getCategory().name(), product.getPrice(), product.getStock()
+        });
+        if (products.size() >= batchSize) {
+            flushProducts();
+        }
+    }
+
+    @Override
+    public void acceptPromotion(Promotion promotion) {
+        flushProducts();
+        promotions.add(new Object[]{
+                promotion.getId(), promotion.getName(), promotion.getType().name(), promotion.getCategory(),
+                promotion.getDiscountPercent(), promotion.getProductId(), promotion.getBuyQuantity(),
+                promotion.getGetQuantity(), promotion.getPriority(), promotion.isActive()
+        });
+        if (promotions.size() >= batchSize) {
+            flushPromotions();
+        }
+    }
+
+    public long getProductsLoaded() {
+        return productsLoaded;
+    }
+
+    public long getPromotionsLoaded() {
+        return promotionsLoaded;
+    }
+
+    @Override
+    public void close() {
+        flushProducts();
+        flushPromotions();
+    }
+
+    private void flushProducts() {
+        if (products.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, products);
+        productsLoaded += products.size();
+        products.clear();
+        if (productsLoaded % (batchSize * 100L) == 0) {
+            log.info("Loaded {} products", productsLoaded);
+        }
+    }
+
+    private void flushPromotions() {
+        if (promotions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_PROMOTION, promotions);
+        promotionsLoaded += promotions.size();
+        promotions.clear();
+    }
+}
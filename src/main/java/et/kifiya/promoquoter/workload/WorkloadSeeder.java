@@ -0,0 +1,70 @@
+package et.kifiya.promoquoter.workload;
+
+import et.kifiya.promoquoter.service.PromotionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Seeds the database with a synthetic workload when the {@code workload} profile is active:
+ * {@code mvn spring-boot:run -Dspring-boot.run.profiles=workload}. If
+ * {@code promoquoter.workload.dataset} names an existing file it is reloaded; otherwise the data
+ * is generated from {@code promoquoter.workload.*} and, when a dataset path is set, written there.
+ */
+@Configuration
+@Profile("workload")
+@Slf4j
+public class WorkloadSeeder {
+
+    @Bean
+    @ConfigurationProperties(prefix = "promoquoter.workload")
+    public WorkloadSpec workloadSpec() {
+        return new WorkloadSpec();
+    }
+
+    @Bean
+    public ApplicationRunner workloadSeedRunner(WorkloadSpec workloadSpec,
+                                                JdbcTemplate jdbcTemplate,
+                                                PromotionService promotionService,
+                                                @Value("${promoquoter.workload.dataset:}") String dataset,
+                                                @Value("${promoquoter.workload.batch-size:1000}") int batchSize) {
+        return (ApplicationArguments args) -> {
+            long started = System.nanoTime();
+            WorkloadLoader loader = new WorkloadLoader(jdbcTemplate, batchSize);
+            try (loader) {
+                seed(workloadSpec, dataset.isBlank() ? null : Path.of(dataset), loader);
+            }
+            promotionService.reloadSnapshot();
+            log.info("Seeded {} products and {} promotions in {} ms", loader.getProductsLoaded(),
+                    loader.getPromotionsLoaded(), (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+
+    private void seed(WorkloadSpec spec, Path dataset, WorkloadLoader loader) throws IOException {
+        if (dataset != null && Files.exists(dataset)) {
+            log.info("Reloading workload dataset {}", dataset);
+            WorkloadDataset.read(dataset, loader);
+            return;
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(spec);
+        if (dataset == null) {
+            generator.generate(loader);
+            return;
+        }
+        try (WorkloadDataset.Writer writer = WorkloadDataset.writer(dataset)) {
+            generator.generate(WorkloadSink.tee(loader, writer));
+        }
+        log.info("Wrote workload dataset {}", dataset);
+    }
+}
@@ -0,0 +1,31 @@
+package et.kifiya.promoquoter.workload;
+
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+
+/**
+ * Receives a workload one row at a time, so millions of products never have to be held in memory.
+ * All products are delivered before the first promotion.
+ */
+public interface WorkloadSink {
+
+    void acceptProduct(Product product);
+
+    void acceptPromotion(Promotion promotion);
+
+    static WorkloadSink tee(WorkloadSink first, WorkloadSink second) {
+        return new WorkloadSink() {
+            @Override
+            public void acceptProduct(Product product) {
+                first.acceptProduct(product);
+                second.acceptProduct(product);
+            }
+
+            @Override
+            public void acceptPromotion(Promotion promotion) {
+                first.acceptPromotion(promotion);
+                second.acceptPromotion(promotion);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package et.kifiya.promoquoter.workload;
+
+import lombok.Data;
+
+/**
+ * Shape of a generated workload. Every value has a default, so a spec only needs the fields a
+ * scenario cares about; the same spec and seed always produce the same data.
+ */
+@Data
+public class WorkloadSpec {
+
+    private long seed = 42L;
+
+    private long products = 1_000_000L;
+    /** Zipf exponent for product popularity; drives which SKUs carts and BOGO promotions pick. */
+    private double popularitySkew = 1.1;
+    /** Zipf exponent over the categories, so a few categories hold most of the catalog. */
+    private double categorySkew = 0.8;
+    private int maxStock = 1_000;
+
+    private int promotions = 5_000;
+    /** Share of promotions that are BUY_X_GET_Y; the rest are PERCENT_OFF_CATEGORY. */
+    private double bogoShare = 0.5;
+
+    private int minCartLines = 1;
+    private int maxCartLines = 20;
+    private int maxQuantity = 5;
+    /** Zipf exponent for product choice in carts; defaults to the popularity skew when unset. */
+    private Double cartSkew;
+
+    public double effectiveCartSkew() {
+        return cartSkew != null ? cartSkew : popularitySkew;
+    }
+}
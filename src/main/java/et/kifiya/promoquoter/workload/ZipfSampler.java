@@ -0,0 +1,82 @@
+package et.kifiya.promoquoter.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf-distributed ranks in {@code [1, n]} by rejection-inversion (Hörmann and Derflinger), which
+ * needs constant memory and time per sample however many elements there are.
+ */
+public final class ZipfSampler {
+
+    private final long numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+
+    public ZipfSampler(long numberOfElements, double exponent) {
+        if (numberOfElements < 1) {
+            throw new IllegalArgumentException("Number of elements must be positive: " + numberOfElements);
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exponent must not be negative: " + exponent);
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1d;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2d - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * @return a rank in {@code [1, n]}, rank 1 being the most likely
+     */
+    public long sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            double x = hIntegralInverse(u);
+            long k = (long) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1d - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1d - exponent);
+        if (t < -1d) {
+            t = -1d;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    /** {@code log1p(x) / x}, stable near zero. */
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1 - x * (0.5 - x * (1d / 3 - 0.25 * x));
+    }
+
+    /** {@code expm1(x) / x}, stable near zero. */
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
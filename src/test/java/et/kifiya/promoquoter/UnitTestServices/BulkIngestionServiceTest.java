@@ -0,0 +1,166 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.dto.requestDTO.PromotionRequestDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.ingest.StreamingImporter.ChunkWriter;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.service.BulkIngestionService;
+import et.kifiya.promoquoter.service.CatalogListingService;
+import et.kifiya.promoquoter.service.PromotionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "promoquoter.ingest.batch-size=4")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BulkIngestionServiceTest {
+
+    @Autowired private BulkIngestionService bulkIngestionService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PromotionService promotionService;
+    @Autowired private CatalogListingService catalogListingService;
+    @Autowired private ProductCatalogCache productCatalogCache;
+
+    @Test
+    void productImport_ShouldStoreWholeChunkInBatches() {
+        // Arrange
+        List<ProductRequestDto> chunk = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            chunk.add(product("Bulk " + i));
+        }
+
+        // Act
+        String[] failures = importAll(bulkIngestionService.productImport(), chunk);
+
+        // Assert
+        assertNull(failures);
+        Set<String> stored = productRepository.findAll().stream().map(Product::getName).collect(Collectors.toSet());
+        for (ProductRequestDto request : chunk) {
+            assertTrue(stored.contains(request.getName()), request.getName());
+        }
+    }
+
+    @Test
+    void productImport_WhenRowFails_ShouldStoreTheRestAndReportThatRow() {
+        // Arrange
+        // longer than the name column, so only the database rejects it
+        String tooLong = "x".repeat(300);
+        List<ProductRequestDto> chunk = List.of(product("Row 0"), product(tooLong), product("Row 2"));
+        long before = productRepository.count();
+
+        // Act
+        String[] failures = importAll(bulkIngestionService.productImport(), chunk);
+
+        // Assert
+        assertNotNull(failures);
+        assertNull(failures[0]);
+        assertNotNull(failures[1]);
+        assertNull(failures[2]);
+        assertEquals(before + 2, productRepository.count());
+    }
+
+    @Test
+    void productImport_WithoutACategory_ShouldReportThatRow() {
+        // Arrange
+        ProductRequestDto uncategorised = product("No category");
+        uncategorised.setCategory(null);
+        List<ProductRequestDto> chunk = List.of(product("Categorised"), uncategorised);
+
+        // Act
+        String[] failures = importAll(bulkIngestionService.productImport(), chunk);
+
+        // Assert
+        assertNotNull(failures);
+        assertNull(failures[0]);
+        assertNotNull(failures[1]);
+    }
+
+    @Test
+    void productImport_ShouldBumpTheCatalogVersionOnceWhenTheImportEnds() {
+        // Arrange
+        ChunkWriter<ProductRequestDto> writer = bulkIngestionService.productImport();
+        long before = productCatalogCache.getCatalogVersion();
+
+        // Act
+        writer.write(List.of(product("Import 0"), product("Import 1")));
+        writer.write(List.of(product("Import 2")));
+        long beforeFinish = productCatalogCache.getCatalogVersion();
+        writer.finish();
+
+        // Assert
+        assertEquals(before, beforeFinish);
+        assertEquals(before + 1, productCatalogCache.getCatalogVersion());
+    }
+
+    @Test
+    void promotionImport_ShouldMergeEveryChunkIntoSnapshotOnceWhenTheImportEnds() {
+        // Arrange
+        ChunkWriter<PromotionRequestDto> writer = bulkIngestionService.promotionImport();
+        int before = promotionService.getPromotionIndex().size();
+
+        // Act
+        writer.write(List.of(promotion("Imported promotion 0")));
+        writer.write(List.of(promotion("Imported promotion 1")));
+        int beforeFinish = promotionService.getPromotionIndex().size();
+        writer.finish();
+
+        // Assert
+        assertEquals(before, beforeFinish);
+        assertEquals(before + 2, promotionService.getPromotionIndex().size());
+    }
+
+    @Test
+    void promotionImport_ShouldMergeStoredPromotionsIntoSnapshot() {
+        // Arrange
+        PromotionRequestDto request = promotion("Bulk promotion");
+        int before = promotionService.getPromotionIndex().size();
+
+        // Act
+        String[] failures = importAll(bulkIngestionService.promotionImport(), List.of(request));
+
+        // Assert
+        assertNull(failures);
+        assertEquals(before + 1, promotionService.getPromotionIndex().size());
+        List<String> listed = new ArrayList<>();
+        catalogListingService.streamPromotions(PromotionType.PERCENT_OFF_CATEGORY,
+                promotion -> listed.add(promotion.getName()));
+        assertTrue(listed.contains("Bulk promotion"));
+    }
+
+    private static <T> String[] importAll(ChunkWriter<T> writer, List<T> chunk) {
+        String[] failures = writer.write(chunk);
+        writer.finish();
+        return failures;
+    }
+
+    private static PromotionRequestDto promotion(String name) {
+        PromotionRequestDto request = new PromotionRequestDto();
+        request.setName(name);
+        request.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        request.setCategory(Category.BOOKS.name());
+        request.setDiscountPercent(new BigDecimal("5"));
+        return request;
+    }
+
+    private static ProductRequestDto product(String name) {
+        ProductRequestDto request = new ProductRequestDto();
+        request.setName(name);
+        request.setCategory(Category.ELECTRONICS);
+        request.setPrice(new BigDecimal("9.99"));
+        request.setStock(10);
+        return request;
+    }
+}
@@ -0,0 +1,60 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.IdempotencyService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith({MockitoExtension.class, OutputCaptureExtension.class})
+class CartConfirmFailureTest {
+
+    @Mock private TransactionTemplate transactionTemplate;
+    @Spy private IdempotencyService idempotencyService =
+            new IdempotencyService(new SimpleMeterRegistry(), Duration.ofHours(1), 1000);
+    @Spy private PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks private CartService cartService;
+
+    @Test
+    void confirmCart_WhenUnexpectedFailure_ShouldLogItAndReturnServerError(CapturedOutput output) {
+        // Arrange
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(UUID.randomUUID().toString());
+        item.setQty(1);
+        CartConfirmRequest request = new CartConfirmRequest();
+        request.setItems(List.of(item));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalArgumentException("connection reset"));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(request, null));
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, exception.getStatusCode());
+        assertTrue(output.getAll().contains("Cart confirmation failed"));
+        assertTrue(output.getAll().contains("connection reset"));
+    }
+}
@@ -0,0 +1,83 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CartControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ProductRepository productRepository;
+
+    @Test
+    void calculateQuotes_WithInvalidCarts_ShouldFailOnlyThoseCarts() throws Exception {
+        // Arrange
+        Product product = saveProduct();
+        String body = """
+                [
+                  {"items": [{"productId": "%1$s", "qty": 1}], "customerSegment": "REGULAR"},
+                  {"items": [], "customerSegment": "REGULAR"},
+                  {"items": [{"productId": "%1$s"}], "customerSegment": "REGULAR"}
+                ]
+                """.formatted(product.getId());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/cart/quote:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].quote.total").value(12.00))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].quote").doesNotExist())
+                .andExpect(jsonPath("$[1].error").value("Cart items cannot be empty"))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].error").value("items[0].qty: Quantity is required"));
+    }
+
+    @Test
+    void confirmCart_WithTheSameProductOnTwoLines_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        Product product = saveProduct();
+        String body = """
+                {"items": [{"productId": "%1$s", "qty": 1}, {"productId": "%1$s", "qty": 2}],
+                 "customerSegment": "REGULAR"}
+                """.formatted(product.getId());
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/cart/confirm")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Product " + product.getId() + " appears more than once in the cart"));
+        assertEquals(10, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    private Product saveProduct() {
+        Product product = new Product();
+        product.setName("Controller Product");
+        product.setCategory(Category.BOOKS);
+        product.setPrice(new BigDecimal("12.00"));
+        product.setStock(10);
+        return productRepository.save(product);
+    }
+}
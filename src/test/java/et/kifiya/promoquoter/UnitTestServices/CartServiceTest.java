@@ -1,31 +1,62 @@
 package et.kifiya.promoquoter.UnitTestServices;
 
+import et.kifiya.promoquoter.cache.QuoteCache;
 import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.BatchQuoteResult;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartItemDto;
 import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
 import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
 import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
 import et.kifiya.promoquoter.enums.Category;
 import et.kifiya.promoquoter.enums.CustomerSegment;
 import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.exception.ValidationException;
 import et.kifiya.promoquoter.model.Order;
+import et.kifiya.promoquoter.model.OrderItem;
 import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
 import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.promotion.PromotionIndex;
+import et.kifiya.promoquoter.promotion.PromotionStrategy;
+import et.kifiya.promoquoter.promotion.PromotionTrace;
 import et.kifiya.promoquoter.repository.OrderRepository;
+import et.kifiya.promoquoter.reservation.ReservationService;
 import et.kifiya.promoquoter.service.CartService;
 import et.kifiya.promoquoter.service.IdempotencyService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
 import et.kifiya.promoquoter.service.ProductService;
 import et.kifiya.promoquoter.service.PromotionService;
+import et.kifiya.promoquoter.service.QuoteBatchExecutor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -36,10 +67,23 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
 
+    private static final List<PromotionStrategy> STRATEGIES =
+            List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy());
+
     @Mock private ProductService productService;
     @Mock private PromotionService promotionService;
     @Mock private OrderRepository orderRepository;
-    @Mock private IdempotencyService idempotencyService;
+    @Mock private ReservationService reservationService;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy private IdempotencyService idempotencyService =
+            new IdempotencyService(new SimpleMeterRegistry(), Duration.ofHours(1), 1000);
+    @Spy private QuoteCache quoteCache = new QuoteCache(new SimpleMeterRegistry(), 1000, Duration.ofMinutes(10));
+    @Spy private QuoteBatchExecutor quoteBatchExecutor = new QuoteBatchExecutor(2, 100);
+    @Spy private PipelineMetrics pipelineMetrics = new PipelineMetrics(meterRegistry);
+    @Spy private LargeCartMode largeCartMode = LargeCartMode.sequential();
 
     @InjectMocks private CartService cartService;
 
@@ -90,13 +134,14 @@ class CartServiceTest {
         request.setItems(List.of(item1));
         request.setCustomerSegment(CustomerSegment.REGULAR);
 
-        when(productService.getProductsByIds(anyList())).thenReturn(List.of(product1));
-        when(promotionService.getActivePromotions()).thenReturn(List.of(promotion1));
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(promotion1), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
 
         PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
         when(context.getTotalDiscount()).thenReturn(new BigDecimal("20.00"));
         when(context.getAppliedPromotions()).thenReturn(List.of());
-        when(promotionService.applyPromotions(anyList(), anyMap(), anyMap())).thenReturn(context);
+        when(promotionService.applyPromotions(eq(promotionIndex), any(CartLines.class))).thenReturn(context);
 
         // Act
         CartResponseDto result = cartService.calculateQuote(request);
@@ -108,6 +153,174 @@ class CartServiceTest {
         assertNotNull(result.getQuoteId());
     }
 
+    @Test
+    void calculateQuote_WithSameCartInAnyOrder_ShouldBeServedFromQuoteCache() {
+        // Arrange
+        CartItemRequest item1 = new CartItemRequest();
+        item1.setProductId(product1.getId().toString());
+        item1.setQty(2);
+        CartItemRequest item2 = new CartItemRequest();
+        item2.setProductId(product2.getId().toString());
+        item2.setQty(3);
+
+        CartRequest request = new CartRequest();
+        request.setItems(List.of(item1, item2));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        CartRequest reordered = new CartRequest();
+        reordered.setItems(List.of(item2, item1));
+        reordered.setCustomerSegment(CustomerSegment.REGULAR);
+
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1, product2));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(any(PromotionIndex.class), any(CartLines.class))).thenReturn(context);
+
+        // Act
+        CartResponseDto first = cartService.calculateQuote(request);
+        CartResponseDto second = cartService.calculateQuote(reordered);
+
+        // Assert
+        assertEquals(first.getTotal(), second.getTotal());
+        assertNotEquals(first.getQuoteId(), second.getQuoteId());
+        verify(productService, times(1)).getProductViews(anyCollection());
+        assertEquals(1, quoteCache.size());
+        assertThrows(UnsupportedOperationException.class, () -> first.getCartItemDtos().clear());
+        assertEquals(2, second.getCartItemDtos().size());
+    }
+
+    @Test
+    void calculateQuote_FromQuoteCacheInAnotherOrder_ShouldAnswerInTheRequestOrder() {
+        // Arrange
+        CartItemRequest item1 = new CartItemRequest();
+        item1.setProductId(product1.getId().toString());
+        item1.setQty(2);
+        CartItemRequest item2 = new CartItemRequest();
+        item2.setProductId(product2.getId().toString());
+        item2.setQty(3);
+        CartItemRequest item2Upper = new CartItemRequest();
+        item2Upper.setProductId(product2.getId().toString().toUpperCase());
+        item2Upper.setQty(3);
+
+        CartRequest request = new CartRequest();
+        request.setItems(List.of(item1, item2));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        CartRequest reordered = new CartRequest();
+        reordered.setItems(List.of(item2Upper, item1));
+        reordered.setCustomerSegment(CustomerSegment.REGULAR);
+
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1, product2));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(any(PromotionIndex.class), any(CartLines.class))).thenReturn(context);
+
+        // Act
+        CartResponseDto first = cartService.calculateQuote(request);
+        CartResponseDto second = cartService.calculateQuote(reordered);
+
+        // Assert
+        verify(productService, times(1)).getProductViews(anyCollection());
+        assertEquals(List.of(item1.getProductId(), item2.getProductId()),
+                first.getCartItemDtos().stream().map(CartItemDto::getProductId).toList());
+        assertEquals(List.of(item2Upper.getProductId(), item1.getProductId()),
+                second.getCartItemDtos().stream().map(CartItemDto::getProductId).toList());
+        assertEquals(List.of(3, 2), second.getCartItemDtos().stream().map(CartItemDto::getQuantity).toList());
+        assertEquals(product2.getName(), second.getCartItemDtos().get(0).getProductName());
+    }
+
+    @Test
+    void calculateQuote_AfterPromotionChange_ShouldRecomputeQuote() {
+        // Arrange
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product1.getId().toString());
+        item.setQty(1);
+        CartRequest request = new CartRequest();
+        request.setItems(List.of(item));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1));
+        when(promotionService.getPromotionIndex()).thenReturn(
+                PromotionIndex.compile(1, List.of(), STRATEGIES),
+                PromotionIndex.compile(2, List.of(promotion1), STRATEGIES));
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO, new BigDecimal("10.00"));
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(any(PromotionIndex.class), any(CartLines.class))).thenReturn(context);
+
+        // Act
+        CartResponseDto before = cartService.calculateQuote(request);
+        CartResponseDto after = cartService.calculateQuote(request);
+
+        // Assert
+        assertEquals(new BigDecimal("100.00"), before.getTotal());
+        assertEquals(new BigDecimal("90.00"), after.getTotal());
+        verify(productService, times(2)).getProductViews(anyCollection());
+    }
+
+    @Test
+    void calculateQuote_WithExplain_ShouldBypassCacheAndReturnTrace() {
+        // Arrange
+        CartRequest request = cartOf(product1, 1);
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(promotion1), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(eq(promotionIndex), any(CartLines.class), any(PromotionTrace.class)))
+                .thenReturn(context);
+
+        // Act
+        CartResponseDto first = cartService.calculateQuote(request, true);
+        CartResponseDto second = cartService.calculateQuote(request, true);
+
+        // Assert
+        assertNotNull(first.getExplain());
+        assertNotNull(second.getExplain());
+        assertEquals(0, quoteCache.size());
+        verify(productService, times(2)).getProductViews(anyCollection());
+        verify(promotionService, never()).applyPromotions(any(PromotionIndex.class), any(CartLines.class));
+    }
+
+    @Test
+    void calculateQuotes_ShouldFetchOnceAndReturnResultsInRequestOrder() {
+        // Arrange
+        CartRequest first = cartOf(product1, 1);
+        CartRequest unknown = cartOf(new Product(), 1);
+        unknown.getItems().get(0).setProductId(UUID.randomUUID().toString());
+        CartRequest third = cartOf(product2, 4);
+
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1, product2));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(eq(promotionIndex), any(CartLines.class))).thenReturn(context);
+
+        // Act
+        List<BatchQuoteResult> results = cartService.calculateQuotes(List.of(first, unknown, third));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(new BigDecimal("100.00"), results.get(0).getQuote().getTotal());
+        assertNull(results.get(1).getQuote());
+        assertEquals("One or more products not found", results.get(1).getError());
+        assertEquals(new BigDecimal("200.00"), results.get(2).getQuote().getTotal());
+        verify(productService, times(1)).getProductViews(anyCollection());
+        verify(promotionService, times(1)).getPromotionIndex();
+    }
+
     @Test
     void confirmCart_WithNewIdempotencyKey_ShouldCreateOrder() {
         // Arrange
@@ -118,28 +331,75 @@ class CartServiceTest {
         request.setItems(List.of(item));
         request.setCustomerSegment(CustomerSegment.REGULAR);
 
-        when(idempotencyService.getProcessedOrderId(anyString())).thenReturn(Optional.empty());
-        when(productService.getProductsByIds(anyList())).thenReturn(List.of(product1));
-        when(promotionService.getActivePromotions()).thenReturn(List.of());
+        runTransactionCallbacks();
+        when(productService.loadProducts(anyCollection())).thenReturn(Map.of(product1.getId(), product1));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
 
         PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
         when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
         when(context.getAppliedPromotions()).thenReturn(List.of());
-        when(promotionService.applyPromotions(anyList(), anyMap(), anyMap())).thenReturn(context);
+        when(promotionService.applyPromotions(eq(promotionIndex), any(CartLines.class))).thenReturn(context);
 
         Order savedOrder = new Order();
         savedOrder.setId(UUID.randomUUID());
         savedOrder.setStatus("CONFIRMED");
         savedOrder.setOrderDate(LocalDateTime.now());
+        OrderItem orderItem = new OrderItem();
+        orderItem.setProductId(product1.getId());
+        orderItem.setQuantity(1);
+        savedOrder.setItems(List.of(orderItem));
+        List<String> claimedStatuses = new ArrayList<>();
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order claim = invocation.getArgument(0);
+            claimedStatuses.add(claim.getStatus());
+            return claim;
+        });
         when(orderRepository.save(any(Order.class))).thenReturn(savedOrder);
 
         // Act
         CartConfirmResponse result = cartService.confirmCart(request, "test-key");
+        CartConfirmResponse replay = cartService.confirmCart(request, "test-key");
 
         // Assert
         assertNotNull(result);
         assertEquals(savedOrder.getId(), result.getOrderId());
-        verify(idempotencyService).storeIdempotencyKey("test-key", savedOrder.getId().toString());
+        assertTrue(idempotencyService.isKeyProcessed("test-key"));
+        assertEquals(savedOrder.getId(), replay.getOrderId());
+        assertEquals("Duplicated", replay.getRequestType());
+        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(List.of("PENDING"), claimedStatuses);
+        verify(orderRepository).saveAndFlush(argThat(order -> "test-key".equals(order.getIdempotencyKey())));
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(orderRepository, never()).deleteByIdAndStatus(any(), any());
+    }
+
+    @Test
+    void confirmCart_WhenConfirmationFails_ShouldReleaseTheClaim() {
+        // Arrange
+        CartConfirmRequest request = new CartConfirmRequest();
+        request.setItems(cartOf(product1, 11).getItems());
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+
+        runTransactionCallbacks();
+        when(productService.loadProducts(anyCollection())).thenReturn(Map.of(product1.getId(), product1));
+        UUID claimId = UUID.randomUUID();
+        when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> {
+            Order claim = invocation.getArgument(0);
+            claim.setId(claimId);
+            return claim;
+        });
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(request, "failing-key"));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(orderRepository).deleteByIdAndStatus(claimId, Order.STATUS_PENDING);
+        verify(orderRepository, never()).save(any(Order.class));
+        assertFalse(idempotencyService.isKeyProcessed("failing-key"));
     }
 
     @Test
@@ -148,11 +408,15 @@ class CartServiceTest {
         CartConfirmRequest request = new CartConfirmRequest();
         String existingOrderId = UUID.randomUUID().toString();
 
-        when(idempotencyService.getProcessedOrderId("existing-key")).thenReturn(Optional.of(existingOrderId));
+        runTransactionCallbacks();
 
         Order existingOrder = new Order();
         existingOrder.setId(UUID.fromString(existingOrderId));
         existingOrder.setStatus("CONFIRMED");
+        existingOrder.setItems(List.of());
+        when(orderRepository.saveAndFlush(any(Order.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_orders_idempotency_key"));
+        when(orderRepository.findByIdempotencyKey("existing-key")).thenReturn(Optional.of(existingOrder));
         when(orderRepository.findById(any(UUID.class))).thenReturn(Optional.of(existingOrder));
 
         // Act
@@ -161,7 +425,118 @@ class CartServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(existingOrder.getId(), result.getOrderId());
+        assertEquals("Duplicated", result.getRequestType());
         verify(orderRepository, never()).save(any(Order.class));
+        verify(productService, never()).decrementStock(any(), any(), any());
+    }
+
+    @Test
+    void confirmCart_WhenClaimedOrderIsStillPending_ShouldReturnConflict() {
+        // Arrange
+        CartConfirmRequest request = new CartConfirmRequest();
+        runTransactionCallbacks();
+
+        Order pendingOrder = new Order();
+        pendingOrder.setId(UUID.randomUUID());
+        pendingOrder.setStatus("PENDING");
+        when(orderRepository.saveAndFlush(any(Order.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_orders_idempotency_key"));
+        when(orderRepository.findByIdempotencyKey("pending-key")).thenReturn(Optional.of(pendingOrder));
+
+        // Act & Assert
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(request, "pending-key"));
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertFalse(idempotencyService.isKeyProcessed("pending-key"));
+    }
+
+    @Test
+    void calculateQuote_ShouldTimeEachStageByCartSize() {
+        // Arrange
+        CartRequest request = cartOf(product1, 1);
+        request.setItems(List.of(request.getItems().get(0), cartOf(product2, 2).getItems().get(0)));
+
+        when(productService.getProductViews(anyCollection())).thenReturn(viewsById(product1, product2));
+        PromotionIndex promotionIndex = PromotionIndex.compile(1, List.of(), STRATEGIES);
+        when(promotionService.getPromotionIndex()).thenReturn(promotionIndex);
+
+        PromotionService.PromotionContext context = mock(PromotionService.PromotionContext.class);
+        when(context.getTotalDiscount()).thenReturn(BigDecimal.ZERO);
+        when(context.getAppliedPromotions()).thenReturn(List.of());
+        when(promotionService.applyPromotions(eq(promotionIndex), any(CartLines.class))).thenReturn(context);
+
+        // Act
+        cartService.calculateQuote(request);
+
+        // Assert
+        for (String stage : List.of(PipelineMetrics.PROMOTION_FETCH, PipelineMetrics.PRODUCT_FETCH,
+                PipelineMetrics.PROMOTION_APPLY, PipelineMetrics.RESPONSE_BUILD)) {
+            assertEquals(1, meterRegistry.get(PipelineMetrics.STAGE_TIMER)
+                    .tags("stage", stage, "cart.size", "2-5", "outcome", PipelineMetrics.SUCCESS)
+                    .timer().count(), stage);
+        }
     }
 
+    @Test
+    void confirmCart_WhenRequestIsInvalid_ShouldPassTheValidationErrorThrough() {
+        // Arrange
+        CartConfirmRequest request = new CartConfirmRequest();
+        request.setItems(cartOf(product1, 1).getItems());
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        runTransactionCallbacks();
+        when(productService.loadProducts(anyCollection())).thenThrow(new ValidationException("Invalid cart"));
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> cartService.confirmCart(request, null));
+        assertEquals("Invalid cart", exception.getMessage());
+    }
+
+    @Test
+    void confirmCart_WhenEveryAttemptTimesOutOnRowLock_ShouldRecordAttempts() {
+        // Arrange
+        CartConfirmRequest request = new CartConfirmRequest();
+        request.setItems(cartOf(product1, 1).getItems());
+        when(transactionTemplate.execute(any()))
+                .thenThrow(new CannotAcquireLockException("Timeout trying to lock table"));
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(request, null));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertEquals(3, meterRegistry.get(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", PipelineMetrics.CONFIRM_ATTEMPT, "cart.size", "1", "outcome", PipelineMetrics.CONFLICT)
+                .timer().count());
+        DistributionSummary attempts = meterRegistry.get(PipelineMetrics.CONFIRM_ATTEMPTS)
+                .tags("outcome", PipelineMetrics.CONFLICT).summary();
+        assertEquals(1, attempts.count());
+        assertEquals(3, attempts.totalAmount());
+    }
+
+    private CartRequest cartOf(Product product, int quantity) {
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(String.valueOf(product.getId()));
+        item.setQty(quantity);
+        CartRequest request = new CartRequest();
+        request.setItems(List.of(item));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+    }
+
+    private static Map<UUID, ProductView> viewsById(Product... products) {
+        Map<UUID, ProductView> views = new HashMap<>();
+        for (Product product : products) {
+            views.put(product.getId(), ProductView.from(product));
+        }
+        return views;
+    }
 }
@@ -0,0 +1,105 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.dto.ResponseDTO.PageResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.ProductResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.PromotionResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.exception.ValidationException;
+import et.kifiya.promoquoter.service.CatalogListingService;
+import et.kifiya.promoquoter.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "promoquoter.listing.max-page-size=50")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class CatalogListingServiceTest {
+
+    @Autowired private CatalogListingService catalogListingService;
+    @Autowired private ProductService productService;
+
+    @Test
+    void getProductPage_ShouldWalkEveryProductOnceInStreamOrder() {
+        // Arrange
+        Set<UUID> created = new HashSet<>();
+        productService.createProducts(products(Category.BOOKS, 7)).forEach(product -> created.add(product.getId()));
+        List<UUID> streamed = new ArrayList<>();
+        catalogListingService.streamProducts(null, product -> streamed.add(product.getId()));
+
+        // Act
+        List<UUID> paged = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            PageResponse<ProductResponse> page = catalogListingService.getProductPage(null,
+                    cursor != null ? UUID.fromString(cursor) : null, 3);
+            page.getItems().forEach(product -> paged.add(product.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(streamed, paged);
+        assertEquals(paged.size(), new HashSet<>(paged).size());
+        assertTrue(paged.containsAll(created));
+        assertEquals((paged.size() + 2) / 3, pages);
+    }
+
+    @Test
+    void getProductPage_WithCategory_ShouldOnlyListThatCategory() {
+        // Arrange
+        productService.createProducts(products(Category.ELECTRONICS, 2));
+        productService.createProducts(products(Category.BOOKS, 2));
+        List<ProductResponse> streamed = new ArrayList<>();
+
+        // Act
+        PageResponse<ProductResponse> page = catalogListingService.getProductPage(Category.ELECTRONICS, null, 50);
+        catalogListingService.streamProducts(Category.ELECTRONICS, streamed::add);
+
+        // Assert
+        assertFalse(page.getItems().isEmpty());
+        assertTrue(page.getItems().stream().allMatch(product -> product.getCategory() == Category.ELECTRONICS));
+        assertEquals(page.getItems(), streamed);
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPromotionPage_ShouldRejectLimitOutsideBounds() {
+        // Act
+        ValidationException zero = assertThrows(ValidationException.class,
+                () -> catalogListingService.getPromotionPage(null, null, 0));
+        ValidationException tooLarge = assertThrows(ValidationException.class,
+                () -> catalogListingService.getPromotionPage(PromotionType.BUY_X_GET_Y, null, 51));
+        PageResponse<PromotionResponseDto> page = catalogListingService.getPromotionPage(null, null, 50);
+
+        // Assert
+        assertEquals("limit must be between 1 and 50", zero.getMessage());
+        assertEquals(zero.getMessage(), tooLarge.getMessage());
+        assertNotNull(page.getItems());
+    }
+
+    private static List<ProductRequestDto> products(Category category, int count) {
+        List<ProductRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ProductRequestDto request = new ProductRequestDto();
+            request.setName("Listed " + category + " " + i);
+            request.setCategory(category);
+            request.setPrice(new BigDecimal("4.50"));
+            request.setStock(3);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
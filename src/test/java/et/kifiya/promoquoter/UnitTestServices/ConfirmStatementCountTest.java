@@ -0,0 +1,160 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.service.CartService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ConfirmStatementCountTest {
+
+    private static final int LINES = 50;
+    private static final int MAX_STATEMENTS = 8;
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+
+    @Autowired private CartService cartService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private List<Product> products;
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource counting(DataSource target) {
+            return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                    new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                        Object result = invoke(target, method, args);
+                        return result instanceof Connection connection ? counting(connection) : result;
+                    });
+        }
+
+        private static Connection counting(Connection target) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setName("Bulk Product " + i);
+            product.setCategory(Category.values()[i % Category.values().length]);
+            product.setPrice(new BigDecimal("10.00").add(BigDecimal.valueOf(i)));
+            product.setStock(100);
+            products.add(product);
+        }
+        products = productRepository.saveAll(products);
+    }
+
+    @Test
+    void confirmCart_With50Lines_ShouldUseAHandfulOfStatements() {
+        // Arrange
+        CartConfirmRequest request = new CartConfirmRequest();
+        List<CartItemRequest> items = new ArrayList<>();
+        for (Product product : products) {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getId().toString());
+            item.setQty(2);
+            items.add(item);
+        }
+        request.setItems(items);
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+
+        cartService.calculateQuote(quoteRequestFor(items));
+        STATEMENTS.set(0);
+
+        // Act
+        CartConfirmResponse response = cartService.confirmCart(request, "statement-count-key");
+        int statements = STATEMENTS.get();
+
+        // Assert
+        assertEquals(LINES, response.getItems().size());
+        assertTrue(statements <= MAX_STATEMENTS,
+                "Expected at most " + MAX_STATEMENTS + " statements but was " + statements);
+        assertEquals(98, productRepository.findById(products.get(0).getId()).orElseThrow().getStock());
+    }
+
+    @Test
+    void calculateQuote_OnCatalogCacheMiss_ShouldNotHydrateProductEntities() {
+        // Arrange
+        List<CartItemRequest> items = new ArrayList<>();
+        for (Product product : products) {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getId().toString());
+            item.setQty(1);
+            items.add(item);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        CartResponseDto quote = cartService.calculateQuote(quoteRequestFor(items));
+
+        // Assert
+        assertEquals(LINES, quote.getCartItemDtos().size());
+        assertEquals(0, statistics.getEntityStatistics(Product.class.getName()).getLoadCount());
+    }
+
+    private CartRequest quoteRequestFor(List<CartItemRequest> items) {
+        CartRequest quoteRequest = new CartRequest();
+        quoteRequest.setItems(items);
+        quoteRequest.setCustomerSegment(CustomerSegment.REGULAR);
+        return quoteRequest;
+    }
+}
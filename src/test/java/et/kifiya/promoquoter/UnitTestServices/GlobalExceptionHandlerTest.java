@@ -0,0 +1,37 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleResponseStatus_ShouldKeepStatusAndReason() {
+        // Act
+        ResponseEntity<?> response = handler.handleResponseStatus(
+                new ResponseStatusException(HttpStatus.CONFLICT, "An order with this Idempotency-Key is still being processed"));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Map.of("error", "An order with this Idempotency-Key is still being processed"), response.getBody());
+    }
+
+    @Test
+    void handleResponseStatus_WithoutReason_ShouldReportStatus() {
+        // Act
+        ResponseEntity<?> response = handler.handleResponseStatus(new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(Map.of("error", "404 NOT_FOUND"), response.getBody());
+    }
+}
@@ -0,0 +1,117 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.dto.ResponseDTO.CartConfirmResponse;
+import et.kifiya.promoquoter.dto.requestDTO.CartConfirmRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.model.Order;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.repository.OrderRepository;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.reservation.ReservationService;
+import et.kifiya.promoquoter.service.CartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class IdempotencyClaimTest {
+
+    @Autowired private CartService cartService;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private OrderRepository orderRepository;
+    @MockitoSpyBean private ReservationService reservationService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = new Product();
+        product.setName("Claimed Product");
+        product.setCategory(Category.ELECTRONICS);
+        product.setPrice(new BigDecimal("25.00"));
+        product.setStock(5);
+        product = productRepository.save(product);
+    }
+
+    @Test
+    void confirmCart_WhileKeyIsClaimedByAnotherInstance_ShouldReturnConflict() {
+        // Arrange
+        Order pending = new Order();
+        pending.setStatus(Order.STATUS_PENDING);
+        pending.setIdempotencyKey("in-flight-key");
+        orderRepository.saveAndFlush(pending);
+
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(confirmRequest(2), "in-flight-key"));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertEquals("An order with this Idempotency-Key is still being processed", exception.getReason());
+        assertEquals(5, productRepository.findById(product.getId()).orElseThrow().getStock());
+        assertEquals(Order.STATUS_PENDING,
+                orderRepository.findByIdempotencyKey("in-flight-key").orElseThrow().getStatus());
+    }
+
+    @Test
+    void confirmCart_ShouldCommitTheClaimBeforeTheStockWork() {
+        // Arrange
+        AtomicReference<Optional<Order>> seenByOtherTransaction = new AtomicReference<>();
+        doAnswer(invocation -> {
+            seenByOtherTransaction.set(CompletableFuture
+                    .supplyAsync(() -> orderRepository.findByIdempotencyKey("visible-key")).join());
+            return invocation.callRealMethod();
+        }).when(reservationService).prepareConfirm(any(), any(), any());
+
+        // Act
+        CartConfirmResponse response = cartService.confirmCart(confirmRequest(2), "visible-key");
+
+        // Assert
+        assertEquals(Order.STATUS_PENDING, seenByOtherTransaction.get().orElseThrow().getStatus());
+        Order confirmed = orderRepository.findByIdempotencyKey("visible-key").orElseThrow();
+        assertEquals(response.getOrderId(), confirmed.getId());
+        assertEquals(Order.STATUS_CONFIRMED, confirmed.getStatus());
+    }
+
+    @Test
+    void confirmCart_WhenConfirmationFails_ShouldReleaseTheKeyForARetry() {
+        // Act
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> cartService.confirmCart(confirmRequest(6), "retry-key"));
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertTrue(orderRepository.findByIdempotencyKey("retry-key").isEmpty());
+        CartConfirmResponse retried = cartService.confirmCart(confirmRequest(5), "retry-key");
+        assertEquals("NEW", retried.getRequestType());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getStock());
+    }
+
+    private CartConfirmRequest confirmRequest(int quantity) {
+        CartItemRequest item = new CartItemRequest();
+        item.setProductId(product.getId().toString());
+        item.setQty(quantity);
+        CartConfirmRequest request = new CartConfirmRequest();
+        request.setItems(List.of(item));
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        return request;
+    }
+}
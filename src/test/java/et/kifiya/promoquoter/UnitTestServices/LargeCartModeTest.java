@@ -0,0 +1,186 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.cache.QuoteFingerprint;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.repository.PromotionRepository;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.service.ProductService;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Large carts priced with fork-join chunks must produce exactly the quote of a single pass: same
+ * line items, totals and applied promotions, compared with {@link BigDecimal#equals} so scale
+ * must match too. Seeds are fixed, so a failure reproduces.
+ */
+@ExtendWith(MockitoExtension.class)
+class LargeCartModeTest {
+
+    private static final Category[] CATEGORIES = Category.values();
+
+    @Mock private ProductService productService;
+    @Mock private PromotionRepository promotionRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LargeCartMode parallel = new LargeCartMode(100, 4, 64);
+
+    @AfterEach
+    void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Test
+    void calculateQuote_InLargeCartMode_ShouldMatchSequentialPricing() {
+        Random random = new Random(22);
+        for (int trial = 0; trial < 12; trial++) {
+            // Arrange
+            // every third cart has prices of scale 3, so its sums take the BigDecimal path
+            boolean decimalPrices = trial % 3 == 2;
+            List<Product> products = randomProducts(random, trial, 1_000 + random.nextInt(4_000), decimalPrices);
+            List<Promotion> promotions = randomPromotions(random, trial, products);
+            when(productService.getProductViews(anyCollection())).thenReturn(
+                    products.stream().collect(Collectors.toMap(Product::getId, ProductView::from)));
+            when(promotionRepository.findByActiveTrueOrderByPriority()).thenReturn(promotions);
+            CartRequest request = cartRequest(random, products);
+
+            // Act
+            CartResponseDto sequentialQuote = cartService(LargeCartMode.sequential()).calculateQuote(request);
+            CartResponseDto parallelQuote = cartService(parallel).calculateQuote(request);
+
+            // Assert
+            assertFalse(sequentialQuote.getAppliedPromotions().isEmpty(), "trial " + trial);
+            assertEquals(sequentialQuote.getCartItemDtos(), parallelQuote.getCartItemDtos(), "trial " + trial);
+            assertEquals(sequentialQuote.getAppliedPromotions(), parallelQuote.getAppliedPromotions(), "trial " + trial);
+            assertEquals(sequentialQuote.getSubtotal(), parallelQuote.getSubtotal(), "trial " + trial);
+            assertEquals(sequentialQuote.getTotalDiscount(), parallelQuote.getTotalDiscount(), "trial " + trial);
+            assertEquals(sequentialQuote.getTotal(), parallelQuote.getTotal(), "trial " + trial);
+        }
+    }
+
+    @Test
+    void forEachChunk_ShouldCoverEveryIndexOnceWithFixedBoundaries() {
+        // Arrange
+        int count = 1_000;
+        int[] visits = new int[count];
+        int[] chunkStarts = new int[parallel.chunkCount(count, 64)];
+
+        // Act
+        parallel.forEachChunk(count, 64, (chunk, from, to) -> {
+            chunkStarts[chunk] = from;
+            for (int i = from; i < to; i++) {
+                visits[i]++;
+            }
+        });
+
+        // Assert
+        assertEquals(16, chunkStarts.length);
+        for (int chunk = 0; chunk < chunkStarts.length; chunk++) {
+            assertEquals(chunk * 64, chunkStarts[chunk]);
+        }
+        for (int visit : visits) {
+            assertEquals(1, visit);
+        }
+        assertFalse(parallel.appliesTo(99));
+        assertTrue(parallel.appliesTo(100));
+        assertFalse(LargeCartMode.sequential().appliesTo(Integer.MAX_VALUE));
+        assertEquals(1, LargeCartMode.sequential().chunkCount(count, 64));
+    }
+
+    private CartService cartService(LargeCartMode largeCartMode) {
+        QuoteCache passThroughQuoteCache = new QuoteCache(meterRegistry, 1, Duration.ofHours(1)) {
+            @Override
+            public CartResponseDto get(QuoteFingerprint fingerprint, List<CartItemRequest> items,
+                                       Supplier<CartResponseDto> pricing) {
+                return pricing.get();
+            }
+        };
+        PromotionService promotionService = new PromotionService(promotionRepository,
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()), meterRegistry);
+        return new CartService(productService, promotionService, null, null, null, null,
+                passThroughQuoteCache, null, new PipelineMetrics(meterRegistry), largeCartMode);
+    }
+
+    private static List<Product> randomProducts(Random random, int trial, int count, boolean decimalPrices) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId(new UUID(trial, i));
+            product.setName("Product " + i);
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            product.setPrice(decimalPrices
+                    ? BigDecimal.valueOf(1 + random.nextInt(10_000_000), 3)
+                    : BigDecimal.valueOf(1 + random.nextInt(1_000_000), 2));
+            product.setStock(1_000_000);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static List<Promotion> randomPromotions(Random random, int trial, List<Product> products) {
+        List<Promotion> promotions = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Promotion promotion = new Promotion();
+            if (i % 4 == 0) {
+                promotion.setType(PromotionType.PERCENT_OFF_CATEGORY);
+                promotion.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)].name());
+                promotion.setDiscountPercent(BigDecimal.valueOf(1 + random.nextInt(5_000), 2));
+            } else {
+                promotion.setType(PromotionType.BUY_X_GET_Y);
+                promotion.setProductId(products.get(random.nextInt(products.size())).getId());
+                promotion.setBuyQuantity(1 + random.nextInt(3));
+                promotion.setGetQuantity(1);
+            }
+            promotion.setId(new UUID(trial, 1_000_000 + i));
+            promotion.setName("Promotion " + i);
+            promotion.setPriority(random.nextInt(10));
+            promotion.setActive(true);
+            promotions.add(promotion);
+        }
+        return promotions;
+    }
+
+    private static CartRequest cartRequest(Random random, List<Product> products) {
+        List<CartItemRequest> items = new ArrayList<>(products.size());
+        for (Product product : products) {
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getId().toString());
+            item.setQty(1 + random.nextInt(12));
+            items.add(item);
+        }
+        CartRequest request = new CartRequest();
+        request.setItems(items);
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+        return request;
+    }
+}
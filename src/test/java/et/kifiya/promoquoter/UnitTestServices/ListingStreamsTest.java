@@ -0,0 +1,126 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.repository.PromotionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ListingStreamsTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private PromotionRepository promotionRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        promotionRepository.deleteAll();
+    }
+
+    @Test
+    void getAllProducts_ByDefault_ShouldReturnAJsonArrayInIdOrder() throws Exception {
+        // Arrange
+        List<UUID> ids = saveProducts();
+
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(start(get("/api/v1/products"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(ids.get(0).toString()))
+                .andExpect(jsonPath("$[1].id").value(ids.get(1).toString()))
+                .andExpect(jsonPath("$[0].category").value("SPORTS"));
+    }
+
+    @Test
+    void getAllProducts_AcceptingNdjson_ShouldReturnOneProductPerLine() throws Exception {
+        // Arrange
+        List<UUID> ids = saveProducts();
+
+        // Act
+        MvcResult result = mockMvc.perform(asyncDispatch(start(get("/api/v1/products")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // Assert
+        String body = result.getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals('\n', body.charAt(body.length() - 1));
+        assertEquals(2, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(ids.get(i).toString(), objectMapper.readTree(lines[i]).get("id").asText());
+        }
+    }
+
+    @Test
+    void getAllPromotions_FromAnEmptyTable_ShouldReturnAnEmptyArray() throws Exception {
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(start(get("/api/v1/promotions"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void getAllPromotions_FromAnEmptyTableAcceptingNdjson_ShouldReturnAnEmptyBody() throws Exception {
+        // Act & Assert
+        mockMvc.perform(asyncDispatch(start(get("/api/v1/promotions")
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(""));
+    }
+
+    private MvcResult start(MockHttpServletRequestBuilder listing) throws Exception {
+        return mockMvc.perform(listing)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private List<UUID> saveProducts() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Product product = new Product();
+            product.setName("Listed Product " + i);
+            product.setCategory(Category.SPORTS);
+            product.setPrice(new BigDecimal("5.00"));
+            product.setStock(3);
+            ids.add(productRepository.save(product).getId());
+        }
+        // the database orders uuids by their unsigned bytes, which is their text order
+        ids.sort(Comparator.comparing(UUID::toString));
+        return ids;
+    }
+}
@@ -0,0 +1,338 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.cache.QuoteFingerprint;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartItemDto;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.Money;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.repository.PromotionRepository;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.service.ProductService;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Randomised equivalence of the minor-unit money path with the BigDecimal arithmetic it replaced.
+ * Every comparison uses {@link BigDecimal#equals}, so scale must match as well as value. Seeds are
+ * fixed, so a failure reproduces.
+ */
+@ExtendWith(MockitoExtension.class)
+class MoneyEquivalenceTest {
+
+    private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+    private static final Category[] CATEGORIES = Category.values();
+
+    @Mock private ProductService productService;
+    @Mock private PromotionRepository promotionRepository;
+
+    private final BuyXGetYStrategy buyXGetY = new BuyXGetYStrategy();
+    private final PercentOffCategoryStrategy percentOff = new PercentOffCategoryStrategy();
+
+    @Test
+    void percentOf_ShouldMatchBigDecimalHalfUpDivision() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 100_000; trial++) {
+            // Arrange
+            long amount = randomAmount(random) * (random.nextInt(10) == 0 ? -1 : 1);
+            BigDecimal percent = randomPercent(random);
+
+            // Act
+            long actual = Money.percentOf(amount, percent.unscaledValue().longValueExact(), percent.scale());
+
+            // Assert
+            BigDecimal expected = BigDecimal.valueOf(amount, 2).multiply(percent).divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP);
+            assertEquals(expected, Money.toBigDecimal(actual), amount + " minor units at " + percent + "%");
+        }
+    }
+
+    @Test
+    void percentOf_ShouldRoundHalfAwayFromZero() {
+        assertEquals(1, Money.percentOf(1, 50, 0));
+        assertEquals(-1, Money.percentOf(-1, 50, 0));
+        assertEquals(2, Money.percentOf(3, 50, 0));
+        assertEquals(1, Money.percentOf(5, 10, 0));
+        assertEquals(0, Money.percentOf(4, 10, 0));
+        assertEquals(1, Money.percentOf(4, 125, 1));
+    }
+
+    @Test
+    void money_ShouldRejectWhatALongCannotHoldExactly() {
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(Long.MAX_VALUE / 2, 100, 0));
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(100, 10, 17));
+        assertThrows(ArithmeticException.class, () -> Money.percentOf(100, 1, -1));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+        assertTrue(Money.isMinorUnits(new BigDecimal("1.50")));
+        assertFalse(Money.isMinorUnits(new BigDecimal("1.5")));
+        assertFalse(Money.isMinorUnits(new BigDecimal("1.005")));
+        assertFalse(Money.isMinorUnits(new BigDecimal("92233720368547758.07")));
+    }
+
+    @Test
+    void strategies_ShouldMatchBigDecimalReference() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 5_000; trial++) {
+            // Arrange
+            List<Product> products = randomProducts(random, trial, 1 + random.nextInt(30));
+            int[] quantities = randomQuantities(random, products.size());
+            CartLines cart = cart(products, quantities);
+            Promotion percent = randomPercentOff(random);
+            Promotion bogo = randomBuyXGetY(random, products);
+
+            // Act
+            BigDecimal percentDiscount = percentOff.apply(percent, cart).getDiscount();
+            BigDecimal bogoDiscount = buyXGetY.apply(bogo, cart).getDiscount();
+
+            // Assert
+            assertTrue(cart.hasMinorUnitPrices());
+            assertEquals(referencePercentOff(percent, products, quantities), percentDiscount, "trial " + trial);
+            assertEquals(referenceBuyXGetY(bogo, products, quantities), bogoDiscount, "trial " + trial);
+        }
+    }
+
+    @Test
+    void strategies_ShouldFallBackToBigDecimalWhenMinorUnitsCannotHoldTheCart() {
+        // Arrange
+        Product precise = product(new UUID(7, 1), Category.ELECTRONICS, new BigDecimal("19.995"));
+        Product huge = product(new UUID(7, 2), Category.ELECTRONICS, new BigDecimal("9223372036854775.80"));
+        Promotion percent = new Promotion();
+        percent.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        percent.setCategory(Category.ELECTRONICS.name());
+        percent.setDiscountPercent(new BigDecimal("12.5"));
+        Promotion bogo = new Promotion();
+        bogo.setType(PromotionType.BUY_X_GET_Y);
+        bogo.setProductId(huge.getId());
+        bogo.setBuyQuantity(1);
+        bogo.setGetQuantity(1);
+
+        CartLines preciseCart = cart(List.of(precise), new int[]{3});
+        CartLines hugeCart = cart(List.of(huge), new int[]{4});
+
+        // Act
+        BigDecimal preciseDiscount = percentOff.apply(percent, preciseCart).getDiscount();
+        BigDecimal hugePercentDiscount = percentOff.apply(percent, hugeCart).getDiscount();
+        BigDecimal hugeBogoDiscount = buyXGetY.apply(bogo, hugeCart).getDiscount();
+
+        // Assert
+        assertFalse(preciseCart.hasMinorUnitPrices());
+        assertTrue(hugeCart.hasMinorUnitPrices());
+        assertEquals(referencePercentOff(percent, List.of(precise), new int[]{3}), preciseDiscount);
+        assertEquals(referencePercentOff(percent, List.of(huge), new int[]{4}), hugePercentDiscount);
+        assertEquals(referenceBuyXGetY(bogo, List.of(huge), new int[]{4}), hugeBogoDiscount);
+    }
+
+    @Test
+    void calculateQuote_ShouldMatchBigDecimalReference() {
+        Random random = new Random(3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QuoteCache passThroughQuoteCache = new QuoteCache(meterRegistry, 1, Duration.ofHours(1)) {
+            @Override
+            public CartResponseDto get(QuoteFingerprint fingerprint, List<CartItemRequest> items,
+                                       Supplier<CartResponseDto> pricing) {
+                return pricing.get();
+            }
+        };
+
+        for (int trial = 0; trial < 500; trial++) {
+            // Arrange
+            List<Product> products = randomProducts(random, trial, 1 + random.nextInt(20));
+            int[] quantities = randomQuantities(random, products.size());
+            List<Promotion> promotions = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                Promotion promotion = random.nextBoolean()
+                        ? randomPercentOff(random) : randomBuyXGetY(random, products);
+                promotion.setId(new UUID(trial, 1_000 + i));
+                promotion.setName("Promotion " + i);
+                promotion.setPriority(random.nextInt(5));
+                promotion.setActive(true);
+                promotions.add(promotion);
+            }
+            when(productService.getProductViews(anyCollection())).thenReturn(viewsById(products));
+            when(promotionRepository.findByActiveTrueOrderByPriority()).thenReturn(promotions);
+            PromotionService promotionService = new PromotionService(promotionRepository,
+                    List.of(buyXGetY, percentOff), meterRegistry);
+            CartService cartService = new CartService(productService, promotionService, null, null, null, null,
+                    passThroughQuoteCache, null, new PipelineMetrics(meterRegistry), LargeCartMode.sequential());
+
+            CartRequest request = new CartRequest();
+            List<CartItemRequest> items = new ArrayList<>();
+            for (int i = 0; i < products.size(); i++) {
+                CartItemRequest item = new CartItemRequest();
+                item.setProductId(products.get(i).getId().toString());
+                item.setQty(quantities[i]);
+                items.add(item);
+            }
+            request.setItems(items);
+            request.setCustomerSegment(CustomerSegment.REGULAR);
+
+            // Act
+            CartResponseDto quote = cartService.calculateQuote(request);
+
+            // Assert
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int i = 0; i < products.size(); i++) {
+                BigDecimal lineTotal = products.get(i).getPrice().multiply(BigDecimal.valueOf(quantities[i]));
+                CartItemDto line = quote.getCartItemDtos().get(i);
+                assertEquals(lineTotal, line.getLineTotal(), "trial " + trial);
+                subtotal = subtotal.add(lineTotal);
+            }
+            subtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+            BigDecimal totalDiscount = BigDecimal.ZERO;
+            for (Promotion promotion : promotions) {
+                BigDecimal discount = promotion.getType() == PromotionType.BUY_X_GET_Y
+                        ? referenceBuyXGetY(promotion, products, quantities)
+                        : referencePercentOff(promotion, products, quantities);
+                if (discount.compareTo(BigDecimal.ZERO) > 0) {
+                    totalDiscount = totalDiscount.add(discount);
+                }
+            }
+            assertEquals(subtotal, quote.getSubtotal(), "trial " + trial);
+            assertEquals(totalDiscount, quote.getTotalDiscount(), "trial " + trial);
+            assertEquals(subtotal.subtract(totalDiscount).max(BigDecimal.ZERO), quote.getTotal(), "trial " + trial);
+        }
+    }
+
+    private static BigDecimal referencePercentOff(Promotion promotion, List<Product> products, int[] quantities) {
+        BigDecimal totalDiscount = BigDecimal.ZERO;
+        int affectedItems = 0;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (product.getCategory().name().equals(promotion.getCategory())
+                    && product.getPrice().compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(quantities[i]));
+                totalDiscount = totalDiscount.add(itemTotal.multiply(promotion.getDiscountPercent())
+                        .divide(ONE_HUNDRED, 2, RoundingMode.HALF_UP));
+                affectedItems++;
+            }
+        }
+        return affectedItems == 0 ? BigDecimal.ZERO : totalDiscount;
+    }
+
+    private static BigDecimal referenceBuyXGetY(Promotion promotion, List<Product> products, int[] quantities) {
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (!product.getId().equals(promotion.getProductId())) {
+                continue;
+            }
+            int freeSets = quantities[i] / (promotion.getBuyQuantity() + promotion.getGetQuantity());
+            if (quantities[i] < promotion.getBuyQuantity() || freeSets == 0
+                    || product.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+                return BigDecimal.ZERO;
+            }
+            return product.getPrice().multiply(BigDecimal.valueOf(freeSets * promotion.getGetQuantity()));
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static CartLines cart(List<Product> products, int[] quantities) {
+        CartLines.Builder builder = CartLines.builder(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            builder.add(product.getId().toString(), product.getId(), product, quantities[i]);
+        }
+        return builder.build();
+    }
+
+    private static List<Product> randomProducts(Random random, int trial, int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long minorUnits = switch (random.nextInt(50)) {
+                case 0 -> 0;
+                case 1 -> -1 - random.nextInt(10_000);
+                default -> randomAmount(random);
+            };
+            products.add(product(new UUID(trial, i), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(minorUnits, 2)));
+        }
+        return products;
+    }
+
+    private static Product product(UUID id, Category category, BigDecimal price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setStock(1_000_000);
+        return product;
+    }
+
+    private static int[] randomQuantities(Random random, int count) {
+        int[] quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            quantities[i] = random.nextInt(20) == 0 ? 1 + random.nextInt(1_000_000) : 1 + random.nextInt(12);
+        }
+        return quantities;
+    }
+
+    private static long randomAmount(Random random) {
+        return random.nextInt(10) == 0 ? 1 + (long) (random.nextDouble() * 1_000_000_000_000L) : 1 + random.nextInt(10_000_000);
+    }
+
+    /**
+     * Percentages with up to four decimals, biased towards values ending in 5 so half-way cases
+     * come up often.
+     */
+    private static BigDecimal randomPercent(Random random) {
+        int scale = random.nextInt(5);
+        long bound = 100L * (long) Math.pow(10, scale);
+        long unscaled = 1 + (long) (random.nextDouble() * bound);
+        if (scale > 0 && random.nextBoolean()) {
+            unscaled = unscaled / 10 * 10 + 5;
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static Promotion randomPercentOff(Random random) {
+        Promotion promotion = new Promotion();
+        promotion.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        promotion.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)].name());
+        promotion.setDiscountPercent(randomPercent(random));
+        return promotion;
+    }
+
+    private static Promotion randomBuyXGetY(Random random, List<Product> products) {
+        Promotion promotion = new Promotion();
+        promotion.setType(PromotionType.BUY_X_GET_Y);
+        promotion.setProductId(random.nextInt(4) == 0
+                ? UUID.randomUUID() : products.get(random.nextInt(products.size())).getId());
+        promotion.setBuyQuantity(1 + random.nextInt(4));
+        promotion.setGetQuantity(1 + random.nextInt(2));
+        return promotion;
+    }
+
+    private static Map<UUID, ProductView> viewsById(List<Product> products) {
+        return products.stream().collect(Collectors.toMap(Product::getId, ProductView::from));
+    }
+}
@@ -0,0 +1,113 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogCacheTest {
+
+    @Mock private ProductRepository productRepository;
+
+    private ProductCatalogCache cache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCatalogCache(productRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+
+        product = new Product();
+        product.setId(UUID.randomUUID());
+        product.setName("Cached Product");
+        product.setCategory(Category.BOOKS);
+        product.setPrice(new BigDecimal("12.50"));
+        product.setStock(5);
+        product.setVersion(1L);
+    }
+
+    @Test
+    void getAll_ShouldLoadOnceAndServeFromCache() {
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(product)));
+
+        cache.getAll(List.of(product.getId()));
+        Map<UUID, ProductView> views = cache.getAll(List.of(product.getId()));
+
+        assertEquals(new BigDecimal("12.50"), views.get(product.getId()).price());
+        verify(productRepository, times(1)).findViewsByIdIn(anyList());
+    }
+
+    @Test
+    void observe_StockOnlyChange_ShouldKeepEntry() {
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(product)));
+        cache.getAll(List.of(product.getId()));
+
+        product.setStock(2);
+        product.setVersion(2L);
+        cache.observe(product);
+        Map<UUID, ProductView> views = cache.getAll(List.of(product.getId()));
+
+        assertEquals(2L, views.get(product.getId()).version());
+        assertEquals(0, cache.getCatalogVersion());
+        verify(productRepository, times(1)).findViewsByIdIn(anyList());
+    }
+
+    @Test
+    void observe_PriceChange_ShouldEvictEntry() {
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(product)));
+        cache.getAll(List.of(product.getId()));
+
+        Product repriced = new Product();
+        repriced.setId(product.getId());
+        repriced.setName(product.getName());
+        repriced.setCategory(product.getCategory());
+        repriced.setPrice(new BigDecimal("10.00"));
+        repriced.setVersion(2L);
+        cache.observe(repriced);
+
+        assertEquals(1, cache.getCatalogVersion());
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(repriced)));
+        assertEquals(new BigDecimal("10.00"), cache.getAll(List.of(product.getId())).get(product.getId()).price());
+    }
+
+    @Test
+    void getAll_AfterRefreshInterval_ShouldPickUpDatabaseChangeAndBumpCatalogVersion() throws InterruptedException {
+        ProductCatalogCache refreshing = new ProductCatalogCache(productRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMinutes(5), Duration.ofNanos(1));
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(product)));
+        refreshing.getAll(List.of(product.getId()));
+
+        // repriced directly in the database, bypassing every application write path
+        product.setPrice(new BigDecimal("9.00"));
+        product.setVersion(2L);
+        when(productRepository.findViewsByIdIn(anyList())).thenReturn(List.of(ProductView.from(product)));
+        // served stale while the reload runs in the background
+        BigDecimal price = refreshing.getAll(List.of(product.getId())).get(product.getId()).price();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!price.equals(new BigDecimal("9.00")) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            price = refreshing.getAll(List.of(product.getId())).get(product.getId()).price();
+        }
+
+        assertEquals(new BigDecimal("9.00"), price);
+        assertEquals(1, refreshing.getCatalogVersion());
+    }
+}
@@ -0,0 +1,81 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.repository.ProductStockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStockRepositoryTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PreparedStatement statement;
+
+    @InjectMocks private ProductStockRepository productStockRepository;
+
+    @Test
+    void decrementStock_ShouldUpdateRowsInProductIdOrderAndReportInCallerOrder() throws Exception {
+        // Arrange
+        UUID low = new UUID(0, 1);
+        UUID middle = new UUID(0, 2);
+        UUID high = new UUID(0, 3);
+        UUID[] productIds = {high, low, middle};
+        int[] quantities = {3, 1, 2};
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        // in id order: low applied, middle not, high applied
+        when(jdbcTemplate.batchUpdate(anyString(), setter.capture())).thenReturn(new int[]{1, 0, 1});
+
+        // Act
+        boolean[] applied = productStockRepository.decrementStock(productIds, quantities);
+
+        // Assert
+        for (int i = 0; i < setter.getValue().getBatchSize(); i++) {
+            setter.getValue().setValues(statement, i);
+        }
+        ArgumentCaptor<Object> ids = ArgumentCaptor.forClass(Object.class);
+        verify(statement, times(3)).setObject(eq(2), ids.capture());
+        assertEquals(List.of(low, middle, high), ids.getAllValues());
+        assertArrayEquals(new boolean[]{true, true, false}, applied);
+    }
+
+    @Test
+    void decrementStock_WhenDriverReportsNoUpdateCount_ShouldFail() {
+        // Arrange
+        UUID[] productIds = {UUID.randomUUID(), UUID.randomUUID()};
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1, Statement.SUCCESS_NO_INFO});
+
+        // Act & Assert
+        assertThrows(IncorrectUpdateSemanticsDataAccessException.class,
+                () -> productStockRepository.decrementStock(productIds, new int[]{1, 1}));
+    }
+
+    @Test
+    void decrementStock_WhenRowFailed_ShouldReportItNotApplied() {
+        // Arrange
+        UUID[] productIds = {new UUID(0, 1), new UUID(0, 2)};
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenReturn(new int[]{1, Statement.EXECUTE_FAILED});
+
+        // Act
+        boolean[] applied = productStockRepository.decrementStock(productIds, new int[]{1, 1});
+
+        // Assert
+        assertArrayEquals(new boolean[]{true, false}, applied);
+    }
+}
@@ -1,12 +1,24 @@
 package et.kifiya.promoquoter.UnitTestServices;
 
+import et.kifiya.promoquoter.dto.requestDTO.PromotionRequestDto;
 import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.exception.ValidationException;
 import et.kifiya.promoquoter.enums.PromotionType;
 import et.kifiya.promoquoter.model.Product;
 import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BoundPromotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.CartAnalysis;
+import et.kifiya.promoquoter.promotion.CartLines;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.promotion.PromotionIndex;
+import et.kifiya.promoquoter.promotion.PromotionStrategies;
 import et.kifiya.promoquoter.promotion.PromotionStrategy;
+import et.kifiya.promoquoter.promotion.PromotionTrace;
 import et.kifiya.promoquoter.repository.PromotionRepository;
+import et.kifiya.promoquoter.service.PipelineMetrics;
 import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,6 +29,8 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,13 +42,17 @@ class PromotionServiceTest {
     @Mock private PromotionStrategy strategy1;
     @Mock private PromotionStrategy strategy2;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private PromotionService promotionService;
     private Product product;
     private Promotion promotion;
 
     @BeforeEach
     void setUp() {
-        promotionService = new PromotionService(promotionRepository, List.of(strategy1, strategy2));
+        lenient().when(strategy1.getType()).thenReturn(PromotionType.PERCENT_OFF_CATEGORY);
+        lenient().when(strategy2.getType()).thenReturn(PromotionType.BUY_X_GET_Y);
+        promotionService = new PromotionService(promotionRepository, List.of(strategy1, strategy2),
+                meterRegistry);
 
         product = new Product();
         product.setId(UUID.randomUUID());
@@ -59,7 +77,8 @@ class PromotionServiceTest {
                 new PromotionStrategy.PromotionResult(new BigDecimal("20.00"), "10% discount");
 
         when(strategy1.supports(promotion)).thenReturn(true);
-        when(strategy1.apply(promotion, products, cartItems)).thenReturn(expectedResult);
+        when(strategy1.apply(argThat((BoundPromotion bound) -> bound.getPromotion() == promotion),
+                any(CartLines.class), isNull())).thenReturn(expectedResult);
 
         // Act
         PromotionService.PromotionContext context =
@@ -78,16 +97,18 @@ class PromotionServiceTest {
 
         Promotion highPriority = new Promotion();
         highPriority.setId(UUID.randomUUID());
+        highPriority.setType(PromotionType.PERCENT_OFF_CATEGORY);
         highPriority.setPriority(1);
         highPriority.setActive(true);
 
         Promotion lowPriority = new Promotion();
         lowPriority.setId(UUID.randomUUID());
+        lowPriority.setType(PromotionType.PERCENT_OFF_CATEGORY);
         lowPriority.setPriority(2);
         lowPriority.setActive(true);
 
         when(strategy1.supports(any())).thenReturn(true);
-        when(strategy1.apply(any(), any(), any()))
+        when(strategy1.apply(any(BoundPromotion.class), any(CartLines.class), any()))
                 .thenReturn(new PromotionStrategy.PromotionResult(new BigDecimal("10.00"), "Discount"));
 
         // Act
@@ -97,4 +118,337 @@ class PromotionServiceTest {
         verify(strategy1).supports(highPriority);
         verify(strategy1).supports(lowPriority);
     }
+
+    @Test
+    void promotionIndex_ShouldOnlyReturnPromotionsMatchingCartLines() {
+        // Arrange
+        Promotion electronics = new Promotion();
+        electronics.setId(UUID.randomUUID());
+        electronics.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        electronics.setCategory("ELECTRONICS");
+        electronics.setDiscountPercent(new BigDecimal("10"));
+        electronics.setPriority(2);
+
+        Promotion books = new Promotion();
+        books.setId(UUID.randomUUID());
+        books.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        books.setCategory("BOOKS");
+        books.setDiscountPercent(new BigDecimal("10"));
+        books.setPriority(0);
+
+        Promotion bogo = new Promotion();
+        bogo.setId(UUID.randomUUID());
+        bogo.setType(PromotionType.BUY_X_GET_Y);
+        bogo.setProductId(product.getId());
+        bogo.setBuyQuantity(2);
+        bogo.setGetQuantity(1);
+        bogo.setPriority(1);
+
+        Promotion otherBogo = new Promotion();
+        otherBogo.setId(UUID.randomUUID());
+        otherBogo.setType(PromotionType.BUY_X_GET_Y);
+        otherBogo.setProductId(UUID.randomUUID());
+        otherBogo.setBuyQuantity(2);
+        otherBogo.setGetQuantity(1);
+
+        PromotionIndex index = PromotionIndex.compile(1, List.of(electronics, books, bogo, otherBogo),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()));
+        Map<String, Product> products = Map.of(product.getId().toString(), product);
+        Map<String, Integer> cartItems = Map.of(product.getId().toString(), 3);
+
+        // Act
+        List<BoundPromotion> candidates = index.candidates(CartLines.of(products, cartItems));
+
+        // Assert
+        assertEquals(4, index.size());
+        assertEquals(List.of(bogo, electronics),
+                candidates.stream().map(BoundPromotion::getPromotion).toList());
+        assertNull(candidates.get(0).getCategory());
+        assertEquals(Category.ELECTRONICS, candidates.get(1).getCategory());
+    }
+
+    @Test
+    void percentOffCategory_WhenBound_ShouldUseTheCompiledCategory() {
+        // Arrange
+        PercentOffCategoryStrategy strategy = new PercentOffCategoryStrategy();
+        promotion.setDiscountPercent(new BigDecimal("10"));
+        // the name is never looked up again once the index has resolved it
+        promotion.setCategory("no longer resolvable");
+        String productId = product.getId().toString();
+        CartLines cart = CartLines.of(Map.of(productId, product), Map.of(productId, 2));
+
+        // Act
+        PromotionStrategy.PromotionResult bound = strategy.apply(
+                new BoundPromotion(promotion, strategy, 0, Category.ELECTRONICS), cart, null);
+        PromotionStrategy.PromotionResult unbound = strategy.apply(promotion, cart, null);
+
+        // Assert
+        assertEquals(0, new BigDecimal("20.00").compareTo(bound.getDiscount()));
+        assertEquals(0, unbound.signum());
+    }
+
+    @Test
+    void applyPromotions_WithTrace_ShouldExplainEveryCandidate() {
+        // Arrange
+        Promotion electronics = new Promotion();
+        electronics.setId(UUID.randomUUID());
+        electronics.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        electronics.setCategory("ELECTRONICS");
+        electronics.setDiscountPercent(new BigDecimal("10"));
+        electronics.setPriority(1);
+
+        Promotion bogo = new Promotion();
+        bogo.setId(UUID.randomUUID());
+        bogo.setType(PromotionType.BUY_X_GET_Y);
+        bogo.setProductId(product.getId());
+        bogo.setBuyQuantity(3);
+        bogo.setGetQuantity(1);
+        bogo.setPriority(2);
+
+        PromotionIndex index = PromotionIndex.compile(1, List.of(electronics, bogo),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()));
+        String productId = product.getId().toString();
+        PromotionTrace trace = new PromotionTrace();
+
+        // Act
+        PromotionService.PromotionContext context = promotionService.applyPromotions(index,
+                CartLines.of(Map.of(productId, product), Map.of(productId, 2)), trace);
+
+        // Assert
+        assertEquals(new BigDecimal("20.00"), context.getTotalDiscount());
+        List<PromotionTrace.Evaluation> evaluations = trace.getEvaluations();
+        assertEquals(2, evaluations.size());
+
+        assertSame(electronics, evaluations.get(0).getPromotion());
+        assertTrue(evaluations.get(0).isMatched());
+        assertEquals(List.of(productId), evaluations.get(0).getLines());
+        assertEquals("1 line(s) in category ELECTRONICS", evaluations.get(0).getReason());
+
+        assertSame(bogo, evaluations.get(1).getPromotion());
+        assertFalse(evaluations.get(1).isMatched());
+        assertEquals(List.of(productId), evaluations.get(1).getLines());
+        assertEquals("Quantity 2 is below the buy quantity 3", evaluations.get(1).getReason());
+        assertTrue(evaluations.get(1).getNanos() >= 0);
+    }
+
+    @Test
+    void applyPromotions_ShouldTimeStrategiesOncePerTypeAndOnlyWhenUntraced() {
+        // Arrange
+        Promotion electronics = new Promotion();
+        electronics.setId(UUID.randomUUID());
+        electronics.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        electronics.setCategory("ELECTRONICS");
+        electronics.setDiscountPercent(new BigDecimal("10"));
+        Promotion moreElectronics = new Promotion();
+        moreElectronics.setId(UUID.randomUUID());
+        moreElectronics.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        moreElectronics.setCategory("ELECTRONICS");
+        moreElectronics.setDiscountPercent(new BigDecimal("5"));
+
+        PromotionIndex index = PromotionIndex.compile(1, List.of(electronics, moreElectronics),
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()));
+        String productId = product.getId().toString();
+        CartLines cart = CartLines.of(Map.of(productId, product), Map.of(productId, 2));
+
+        // Act
+        promotionService.applyPromotions(index, cart);
+        promotionService.applyPromotions(index, cart);
+        promotionService.applyPromotions(index, cart, new PromotionTrace());
+
+        // Assert
+        assertEquals(2, meterRegistry.get(PipelineMetrics.STRATEGY_TIMER)
+                .tags("type", "PERCENT_OFF_CATEGORY", "outcome", PipelineMetrics.APPLIED).timer().count());
+    }
+
+    @Test
+    void cartLines_ShouldFindLinesByProductIdAndRejectDuplicates() {
+        // Arrange
+        Product other = new Product();
+        other.setId(UUID.randomUUID());
+        other.setCategory(Category.BOOKS);
+        other.setPrice(new BigDecimal("12.50"));
+        CartLines.Builder builder = CartLines.builder(3)
+                .add(product.getId().toString(), product.getId(), product, 2)
+                .add(other.getId().toString(), other.getId(), other, 5);
+
+        // Act
+        CartLines cart = builder.build();
+
+        // Assert
+        assertEquals(2, cart.size());
+        assertEquals(1, cart.indexOf(other.getId()));
+        assertEquals(5, cart.quantity(1));
+        assertEquals(Category.BOOKS, cart.category(1));
+        assertEquals(0, cart.indexOf(product.getId()));
+        assertEquals(-1, cart.indexOf(UUID.randomUUID()));
+        String duplicateKey = product.getId().toString().toUpperCase();
+        ValidationException duplicate = assertThrows(ValidationException.class,
+                () -> builder.add(duplicateKey, product.getId(), product, 1));
+        assertEquals("Product " + duplicateKey + " appears more than once in the cart", duplicate.getMessage());
+    }
+
+    @Test
+    void cartAnalysis_ShouldRollUpLinesPerCategoryOnce() {
+        // Arrange
+        Product book = new Product();
+        book.setId(UUID.randomUUID());
+        book.setCategory(Category.BOOKS);
+        book.setPrice(new BigDecimal("12.50"));
+        Product secondBook = new Product();
+        secondBook.setId(UUID.randomUUID());
+        secondBook.setCategory(Category.BOOKS);
+        secondBook.setPrice(new BigDecimal("3.25"));
+
+        // Act
+        CartLines cart = CartLines.builder(3)
+                .add(book.getId().toString(), book.getId(), book, 2)
+                .add(product.getId().toString(), product.getId(), product, 1)
+                .add(secondBook.getId().toString(), secondBook.getId(), secondBook, 4)
+                .build();
+        CartAnalysis analysis = cart.analysis();
+        CartAnalysis.CategoryRollup books = analysis.category(Category.BOOKS);
+
+        // Assert
+        assertSame(analysis, cart.analysis());
+        assertEquals(2, books.size());
+        assertEquals(0, books.line(0));
+        assertEquals(2, books.line(1));
+        assertEquals(6, books.getQuantity());
+        assertEquals(new BigDecimal("38.00"), books.getSubtotal());
+        assertNull(analysis.category(null));
+        assertNull(analysis.category(Category.CLOTHING));
+        assertEquals(2, analysis.categoryCount());
+        assertEquals(new BigDecimal("138.00"), analysis.getSubtotal());
+    }
+
+    @Test
+    void promotionSnapshot_ShouldBeLoadedOnceAndUpdatedCopyOnWrite() {
+        // Arrange
+        promotion.setCategory("ELECTRONICS");
+        promotion.setDiscountPercent(new BigDecimal("10"));
+        when(promotionRepository.findByActiveTrueOrderByPriority()).thenReturn(List.of(promotion));
+        when(strategy1.supports(any())).thenReturn(true);
+
+        Promotion added = new Promotion();
+        added.setId(UUID.randomUUID());
+        added.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        added.setCategory("BOOKS");
+        added.setDiscountPercent(new BigDecimal("5"));
+
+        // Act
+        PromotionIndex first = promotionService.getPromotionIndex();
+        PromotionIndex cached = promotionService.getPromotionIndex();
+        promotionService.mergeIntoSnapshot(List.of(added));
+        PromotionIndex second = promotionService.getPromotionIndex();
+
+        // Assert
+        assertSame(first, cached);
+        assertEquals(1, first.getVersion());
+        assertEquals(2, second.getVersion());
+        assertEquals(List.of(promotion, added), second.getPromotions());
+        verify(promotionRepository, times(1)).findByActiveTrueOrderByPriority();
+    }
+
+    @Test
+    void mergeIntoSnapshot_WhileTheFirstSnapshotIsLoading_ShouldNotLoseTheMergedPromotion() throws Exception {
+        // Arrange
+        promotion.setCategory("ELECTRONICS");
+        promotion.setDiscountPercent(new BigDecimal("10"));
+        when(strategy1.supports(any())).thenReturn(true);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(promotionRepository.findByActiveTrueOrderByPriority()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            // read before the merged promotion committed
+            return List.of(promotion);
+        });
+
+        Promotion added = new Promotion();
+        added.setId(UUID.randomUUID());
+        added.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        added.setCategory("BOOKS");
+        added.setDiscountPercent(new BigDecimal("5"));
+
+        // Act
+        Thread reader = new Thread(promotionService::getPromotionIndex);
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        Thread writer = new Thread(() -> promotionService.mergeIntoSnapshot(List.of(added)));
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.getState() != Thread.State.BLOCKED && writer.isAlive() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        reader.join(5000);
+        writer.join(5000);
+
+        // Assert
+        assertEquals(List.of(promotion, added), promotionService.getPromotionIndex().getPromotions());
+        verify(promotionRepository, times(1)).findByActiveTrueOrderByPriority();
+    }
+
+    @Test
+    void promotionIndex_ShouldBindPromotionsByTypeAndSkipInvalidOnes() {
+        // Arrange
+        Promotion bogo = new Promotion();
+        bogo.setId(UUID.randomUUID());
+        bogo.setType(PromotionType.BUY_X_GET_Y);
+        bogo.setProductId(product.getId());
+        bogo.setBuyQuantity(2);
+        bogo.setGetQuantity(1);
+
+        Promotion unknownCategory = new Promotion();
+        unknownCategory.setId(UUID.randomUUID());
+        unknownCategory.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        unknownCategory.setCategory("electronics");
+        unknownCategory.setDiscountPercent(new BigDecimal("10"));
+
+        BuyXGetYStrategy buyXGetY = new BuyXGetYStrategy();
+        PromotionStrategies strategies = PromotionStrategies.of(List.of(buyXGetY, new PercentOffCategoryStrategy()));
+
+        // Act
+        PromotionIndex index = PromotionIndex.compile(1, List.of(bogo, unknownCategory), strategies);
+
+        // Assert
+        assertEquals(1, index.size());
+        assertSame(buyXGetY, strategies.bind(bogo));
+        assertNull(strategies.bind(unknownCategory));
+        assertNull(strategies.validate(bogo));
+        assertNotNull(strategies.validate(unknownCategory));
+        assertThrows(IllegalStateException.class,
+                () -> PromotionStrategies.of(List.of(buyXGetY, new BuyXGetYStrategy())));
+    }
+
+    @Test
+    void promotionStrategies_WithATypeLeftUncovered_ShouldFailFast() {
+        // Act
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> PromotionStrategies.of(List.of(new BuyXGetYStrategy())));
+
+        // Assert
+        assertEquals("No strategy handles [PERCENT_OFF_CATEGORY] promotions", exception.getMessage());
+    }
+
+    @Test
+    void createPromotions_WithInvalidPromotion_ShouldRejectWholeBatch() {
+        // Arrange
+        PromotionRequestDto valid = new PromotionRequestDto();
+        valid.setName("Electronics 10%");
+        valid.setType(PromotionType.PERCENT_OFF_CATEGORY);
+        valid.setCategory("ELECTRONICS");
+        valid.setDiscountPercent(new BigDecimal("10"));
+        when(strategy1.supports(argThat(p -> "Electronics 10%".equals(p.getName())))).thenReturn(true);
+
+        PromotionRequestDto invalid = new PromotionRequestDto();
+        invalid.setName("Free item");
+        invalid.setType(PromotionType.BUY_X_GET_Y);
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> promotionService.createPromotions(List.of(valid, invalid)));
+        assertTrue(exception.getMessage().startsWith("promotions[1]: "));
+        verify(promotionRepository, never()).saveAll(any());
+    }
 }
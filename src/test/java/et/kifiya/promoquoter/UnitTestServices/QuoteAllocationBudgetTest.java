@@ -0,0 +1,159 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.cache.ProductCatalogCache;
+import et.kifiya.promoquoter.cache.QuoteCache;
+import et.kifiya.promoquoter.cache.QuoteFingerprint;
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.ResponseDTO.CartResponseDto;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.enums.Category;
+import et.kifiya.promoquoter.enums.CustomerSegment;
+import et.kifiya.promoquoter.enums.PromotionType;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.ProductView;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.promotion.BuyXGetYStrategy;
+import et.kifiya.promoquoter.promotion.LargeCartMode;
+import et.kifiya.promoquoter.promotion.PercentOffCategoryStrategy;
+import et.kifiya.promoquoter.repository.ProductRepository;
+import et.kifiya.promoquoter.repository.PromotionRepository;
+import et.kifiya.promoquoter.service.CartService;
+import et.kifiya.promoquoter.service.PipelineMetrics;
+import et.kifiya.promoquoter.service.ProductService;
+import et.kifiya.promoquoter.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the allocation rate of the quote path. The quote cache is bypassed so every call prices
+ * the cart; the repositories are only hit while warming up.
+ */
+@ExtendWith(MockitoExtension.class)
+class QuoteAllocationBudgetTest {
+
+    private static final int LINES = 20;
+    private static final int PROMOTIONS = 200;
+    private static final int WARMUP_QUOTES = 20_000;
+    private static final int MEASURED_QUOTES = 5_000;
+    // about 63 KB measured for this cart (20 lines, ~130 applied promotions), mostly the response
+    // DTOs and their strings; the headroom absorbs JIT and JDK differences
+    private static final long BYTES_PER_QUOTE_BUDGET = 110_000;
+
+    @Mock private ProductRepository productRepository;
+    @Mock private PromotionRepository promotionRepository;
+
+    private CartService cartService;
+    private CartRequest request;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        Category[] categories = Category.values();
+        List<Product> products = new ArrayList<>();
+        List<CartItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = new Product();
+            product.setId(new UUID(42, i));
+            product.setName("Product " + i);
+            product.setCategory(categories[i % categories.length]);
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(10_000), 2));
+            product.setStock(1_000);
+            product.setVersion(0L);
+            products.add(product);
+
+            CartItemRequest item = new CartItemRequest();
+            item.setProductId(product.getId().toString());
+            item.setQty(1 + random.nextInt(6));
+            items.add(item);
+        }
+
+        List<Promotion> promotions = new ArrayList<>();
+        for (int i = 0; i < PROMOTIONS; i++) {
+            Promotion promotion = new Promotion();
+            promotion.setId(new UUID(43, i));
+            promotion.setName("Promotion " + i);
+            promotion.setPriority(random.nextInt(10));
+            promotion.setActive(true);
+            if (i % 2 == 0) {
+                promotion.setType(PromotionType.BUY_X_GET_Y);
+                promotion.setProductId(new UUID(42, random.nextInt(LINES * 2)));
+                promotion.setBuyQuantity(1 + random.nextInt(3));
+                promotion.setGetQuantity(1);
+            } else {
+                promotion.setType(PromotionType.PERCENT_OFF_CATEGORY);
+                promotion.setCategory(categories[random.nextInt(categories.length)].name());
+                promotion.setDiscountPercent(BigDecimal.valueOf(5 + random.nextInt(26)));
+            }
+            promotions.add(promotion);
+        }
+
+        when(productRepository.findViewsByIdIn(anyCollection()))
+                .thenReturn(products.stream().map(ProductView::from).toList());
+        when(promotionRepository.findByActiveTrueOrderByPriority()).thenReturn(promotions);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductCatalogCache catalogCache =
+                new ProductCatalogCache(productRepository, meterRegistry, 1_000, Duration.ofHours(1), Duration.ofHours(1));
+        PromotionService promotionService = new PromotionService(promotionRepository,
+                List.of(new BuyXGetYStrategy(), new PercentOffCategoryStrategy()), meterRegistry);
+        QuoteCache passThroughQuoteCache = new QuoteCache(meterRegistry, 1, Duration.ofHours(1)) {
+            @Override
+            public CartResponseDto get(QuoteFingerprint fingerprint, List<CartItemRequest> items,
+                                       Supplier<CartResponseDto> pricing) {
+                return pricing.get();
+            }
+        };
+        cartService = new CartService(new ProductService(productRepository, null, catalogCache, null, null),
+                promotionService, null, null, null, null, passThroughQuoteCache, null,
+                new PipelineMetrics(meterRegistry), LargeCartMode.sequential());
+
+        request = new CartRequest();
+        request.setItems(items);
+        request.setCustomerSegment(CustomerSegment.REGULAR);
+    }
+
+    @Test
+    void calculateQuote_ShouldStayWithinAllocationBudget() {
+        // Arrange
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        CartResponseDto warmedUp = null;
+        for (int i = 0; i < WARMUP_QUOTES; i++) {
+            warmedUp = cartService.calculateQuote(request);
+        }
+
+        // Act
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_QUOTES; i++) {
+            cartService.calculateQuote(request);
+        }
+        long bytesPerQuote = (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED_QUOTES;
+
+        // Assert
+        assertNotNull(warmedUp);
+        assertEquals(LINES, warmedUp.getCartItemDtos().size());
+        assertTrue(bytesPerQuote <= BYTES_PER_QUOTE_BUDGET,
+                "Quote allocated " + bytesPerQuote + " bytes, budget is " + BYTES_PER_QUOTE_BUDGET);
+    }
+}
@@ -0,0 +1,156 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.exception.OutOfStockException;
+import et.kifiya.promoquoter.repository.ProductStockRepository;
+import et.kifiya.promoquoter.reservation.ReservationService;
+import et.kifiya.promoquoter.reservation.StockLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceTest {
+
+    @Mock private ProductStockRepository productStockRepository;
+
+    private ReservationService reservationService;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationService(productStockRepository, new SimpleMeterRegistry(),
+                Duration.ofMillis(200), Duration.ofMillis(10), 8);
+        productId = UUID.randomUUID();
+        lenient().when(productStockRepository.findStock(anyCollection())).thenReturn(Map.of(productId, 5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        reservationService.shutdown();
+    }
+
+    @Test
+    void reserve_ShouldHoldStockUntilTtlExpires() throws InterruptedException {
+        reservationService.reserve("hold-1", new UUID[]{productId}, new int[]{4});
+
+        assertEquals(4, reservationService.reserved(productId));
+        assertThrows(OutOfStockException.class,
+                () -> reservationService.reserve("hold-2", new UUID[]{productId}, new int[]{2}));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (reservationService.reserved(productId) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, reservationService.reserved(productId));
+    }
+
+    @Test
+    void prepareConfirm_WithMatchingHold_ShouldConsumeIt() {
+        UUID[] productIds = {productId};
+        int[] quantities = {4};
+        reservationService.reserve("hold-1", productIds, quantities);
+
+        reservationService.prepareConfirm("hold-1", productIds, quantities);
+
+        assertEquals(0, reservationService.reserved(productId));
+        assertThrows(OutOfStockException.class,
+                () -> reservationService.reserve("hold-2", new UUID[]{productId}, new int[]{2}));
+    }
+
+    @Test
+    void prepareConfirm_WithoutHold_ShouldRespectOtherHolds() {
+        reservationService.reserve("hold-1", new UUID[]{productId}, new int[]{4});
+
+        assertThrows(OutOfStockException.class,
+                () -> reservationService.prepareConfirm(null, new UUID[]{productId}, new int[]{2}));
+    }
+
+    @Test
+    void reconcile_WhileConfirmationInFlight_ShouldNotCountTheSaleTwice() {
+        UUID[] productIds = {productId};
+        int[] quantities = {4};
+        reservationService.reserve("hold-1", productIds, quantities);
+        TransactionSynchronizationManager.initSynchronization();
+        reservationService.prepareConfirm("hold-1", productIds, quantities);
+
+        // the decrement has committed but the ledger is not settled yet
+        lenient().when(productStockRepository.findStock(anyCollection())).thenReturn(Map.of(productId, 1));
+        reservationService.reconcile();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, reservationService.reserved(productId));
+        reservationService.reserve("hold-2", productIds, new int[]{1});
+        assertThrows(OutOfStockException.class,
+                () -> reservationService.reserve("hold-3", productIds, new int[]{1}));
+    }
+
+    @Test
+    void reconcile_WithSnapshotTakenBeforeASale_ShouldSkipIt() {
+        StockLedger ledger = new StockLedger();
+        ledger.seed(productId, 5);
+        Map<UUID, Long> stamps = ledger.snapshotStamps(List.of(productId));
+
+        ledger.beginSale(productId);
+        ledger.recordSale(productId, 2);
+        boolean applied = ledger.reconcile(productId, 3, stamps.get(productId));
+
+        assertFalse(applied);
+        assertTrue(ledger.tryReserve(productId, 3));
+        assertFalse(ledger.tryReserve(productId, 1));
+    }
+
+    @Test
+    void prepareConfirm_PreparedTwiceInOneTransaction_ShouldSettleOnce() {
+        UUID[] productIds = {productId};
+        int[] quantities = {2};
+        reservationService.reserve("hold-1", productIds, quantities);
+        TransactionSynchronizationManager.initSynchronization();
+
+        reservationService.prepareConfirm("hold-1", productIds, quantities);
+        reservationService.prepareConfirm("hold-1", productIds, quantities);
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, reservationService.reserved(productId));
+        reservationService.reserve("hold-2", productIds, new int[]{3});
+        assertThrows(OutOfStockException.class,
+                () -> reservationService.reserve("hold-3", productIds, new int[]{1}));
+    }
+
+    @Test
+    void reconcile_AfterStockUpdate_ShouldRefreshTrackedProduct() {
+        reservationService.reserve("hold-1", new UUID[]{productId}, new int[]{5});
+        when(productStockRepository.findStock(anyCollection())).thenReturn(Map.of(productId, 8));
+
+        int reconciled = reservationService.reconcile(List.of(productId, UUID.randomUUID()));
+
+        assertEquals(1, reconciled);
+        reservationService.reserve("hold-2", new UUID[]{productId}, new int[]{3});
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
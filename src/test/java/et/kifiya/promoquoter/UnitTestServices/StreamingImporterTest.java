@@ -0,0 +1,220 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportError;
+import et.kifiya.promoquoter.dto.ResponseDTO.ImportResult;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.dto.requestDTO.ProductRequestDto;
+import et.kifiya.promoquoter.exception.ValidationException;
+import et.kifiya.promoquoter.ingest.StreamingImporter;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingImporterTest {
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final StreamingImporter importer =
+            new StreamingImporter(new ObjectMapper(), validatorFactory.getValidator(), 2, 2, 3, 2);
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void importRecords_ShouldReadNdjsonAndArraysInFixedSizeChunks() throws Exception {
+        // Arrange
+        String ndjson = product("A") + "\n" + product("B") + "\n\n" + product("C") + "\n" + product("D") + "\n"
+                + product("E") + "\n";
+        String array = "[" + String.join(",", product("A"), product("B"), product("C"), product("D"),
+                product("E")) + "]";
+        List<List<String>> ndjsonChunks = new ArrayList<>();
+        List<List<String>> arrayChunks = new ArrayList<>();
+
+        // Act
+        ImportResult ndjsonResult = importer.importRecords(body(ndjson), ProductRequestDto.class, null,
+                chunk -> record(ndjsonChunks, chunk));
+        ImportResult arrayResult = importer.importRecords(body(array), ProductRequestDto.class, null,
+                chunk -> record(arrayChunks, chunk));
+
+        // Assert
+        List<List<String>> expected = List.of(List.of("A", "B"), List.of("C", "D"), List.of("E"));
+        assertEquals(expected, ndjsonChunks);
+        assertEquals(expected, arrayChunks);
+        assertEquals(5, ndjsonResult.getImported());
+        assertEquals(3, ndjsonResult.getChunks());
+        assertEquals(ndjsonResult.getReceived(), arrayResult.getReceived());
+        assertEquals(ndjsonResult.getImported(), arrayResult.getImported());
+        assertEquals(ndjsonResult.getChunks(), arrayResult.getChunks());
+    }
+
+    @Test
+    void importRecords_ShouldReportAndSkipInvalidRecords() throws Exception {
+        // Arrange
+        String ndjson = String.join("\n",
+                product("A"),
+                "{\"name\":\"\",\"category\":\"BOOKS\",\"price\":1.00,\"stock\":1}",
+                "{\"name\":\"X\",\"category\":\"NOT_A_CATEGORY\",\"price\":1.00,\"stock\":1}",
+                product("Rejected"),
+                product("B"));
+        List<String> saved = new ArrayList<>();
+
+        // Act
+        ImportResult result = importer.importRecords(body(ndjson), ProductRequestDto.class,
+                record -> record.getName().equals("Rejected") ? "rejected by check" : null,
+                chunk -> save(saved, chunk));
+
+        // Assert
+        assertEquals(List.of("A", "B"), saved);
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        // only the first two errors are kept
+        assertTrue(result.isErrorsTruncated());
+        ImportError blankName = result.getErrors().get(0);
+        assertEquals(1, blankName.getIndex());
+        assertEquals(2, blankName.getLine());
+        assertEquals("name: must not be blank", blankName.getError());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        assertTrue(result.getErrors().get(1).getError().contains("NOT_A_CATEGORY"));
+    }
+
+    @Test
+    void importRecords_WhenChunkFailsToSave_ShouldRejectItAndContinue() throws Exception {
+        // Arrange
+        String ndjson = String.join("\n", product("A"), product("B"), product("C"), product("D"));
+        List<String> saved = new ArrayList<>();
+
+        // Act
+        ImportResult result = importer.importRecords(body(ndjson), ProductRequestDto.class, null, chunk -> {
+            if (chunk.get(0).getName().equals("A")) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return save(saved, chunk);
+        });
+
+        // Assert
+        assertEquals(List.of("C", "D"), saved);
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(0, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getError().contains("constraint violated"));
+    }
+
+    @Test
+    void importRecords_ShouldReportRecordsTheWriterFailsOneByOne() throws Exception {
+        // Arrange
+        String ndjson = String.join("\n", product("A"), product("Bad"), product("C"));
+
+        // Act
+        ImportResult result = importer.importRecords(body(ndjson), ProductRequestDto.class, null,
+                chunk -> chunk.stream().map(record -> record.getName().equals("Bad") ? "too long" : null)
+                        .toArray(String[]::new));
+
+        // Assert
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getChunks());
+        assertEquals(List.of(new ImportError(1, 2, "too long")), result.getErrors());
+        assertTrue(result.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    void importRecords_WithMalformedBody_ShouldFailKeepingEarlierChunks() throws Exception {
+        // Arrange
+        String ndjson = product("A") + "\n" + product("B") + "\n{\"name\": \n";
+        List<String> saved = new ArrayList<>();
+
+        // Act
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> importer.importRecords(body(ndjson), ProductRequestDto.class, null,
+                        chunk -> save(saved, chunk)));
+
+        // Assert
+        assertEquals(List.of("A", "B"), saved);
+        assertTrue(exception.getMessage().startsWith("Malformed JSON at line"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("2 imported"), exception.getMessage());
+    }
+
+    @Test
+    void importRecords_ShouldFinishTheWriterOnceHoweverTheImportEnds() throws Exception {
+        // Arrange
+        List<String> events = new ArrayList<>();
+        StreamingImporter.ChunkWriter<ProductRequestDto> writer = new StreamingImporter.ChunkWriter<>() {
+            @Override
+            public String[] write(List<ProductRequestDto> chunk) {
+                events.add("write " + chunk.size());
+                return null;
+            }
+
+            @Override
+            public void finish() {
+                events.add("finish");
+            }
+        };
+        String complete = String.join("\n", product("A"), product("B"), product("C"));
+        String malformed = product("A") + "\n" + product("B") + "\n{\"name\": \n";
+
+        // Act
+        importer.importRecords(body(complete), ProductRequestDto.class, null, writer);
+        List<String> completeEvents = new ArrayList<>(events);
+        events.clear();
+        assertThrows(ValidationException.class,
+                () -> importer.importRecords(body(malformed), ProductRequestDto.class, null, writer));
+
+        // Assert
+        assertEquals(List.of("write 2", "write 1", "finish"), completeEvents);
+        assertEquals(List.of("write 2", "finish"), events);
+    }
+
+    @Test
+    void readAll_ShouldValidateEachRecordAndEnforceTheLimit() throws Exception {
+        // Arrange
+        String valid = "{\"productId\":\"a\",\"qty\":1}\n{\"productId\":\"b\",\"qty\":2}";
+        String invalid = "{\"productId\":\"a\",\"qty\":1}\n{\"productId\":\"b\"}";
+        String tooLong = valid + "\n" + valid;
+
+        // Act
+        List<CartItemRequest> items = importer.readAll(body(valid), CartItemRequest.class, 3);
+        ValidationException invalidRecord = assertThrows(ValidationException.class,
+                () -> importer.readAll(body(invalid), CartItemRequest.class, 3));
+        ValidationException overLimit = assertThrows(ValidationException.class,
+                () -> importer.readAll(body(tooLong), CartItemRequest.class, 3));
+
+        // Assert
+        assertEquals(2, items.size());
+        assertEquals(2, items.get(1).getQty());
+        assertEquals("Record 1 (line 2): qty: Quantity is required", invalidRecord.getMessage());
+        assertEquals("At most 3 records are accepted", overLimit.getMessage());
+    }
+
+    private static String[] record(List<List<String>> chunks, List<ProductRequestDto> chunk) {
+        chunks.add(chunk.stream().map(ProductRequestDto::getName).toList());
+        return null;
+    }
+
+    private static String[] save(List<String> saved, List<ProductRequestDto> chunk) {
+        chunk.forEach(record -> saved.add(record.getName()));
+        return null;
+    }
+
+    private static String product(String name) {
+        return "{\"name\":\"" + name + "\",\"category\":\"ELECTRONICS\",\"price\":10.00,\"stock\":5}";
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
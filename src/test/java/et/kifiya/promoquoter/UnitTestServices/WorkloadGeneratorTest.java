@@ -0,0 +1,139 @@
+package et.kifiya.promoquoter.UnitTestServices;
+
+import et.kifiya.promoquoter.dto.CartRequest;
+import et.kifiya.promoquoter.dto.requestDTO.CartItemRequest;
+import et.kifiya.promoquoter.model.Product;
+import et.kifiya.promoquoter.model.Promotion;
+import et.kifiya.promoquoter.workload.WorkloadDataset;
+import et.kifiya.promoquoter.workload.WorkloadGenerator;
+import et.kifiya.promoquoter.workload.WorkloadSink;
+import et.kifiya.promoquoter.workload.WorkloadSpec;
+import et.kifiya.promoquoter.workload.ZipfSampler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadGeneratorTest {
+
+    @Test
+    void generator_WithSameSeed_ShouldProduceIdenticalWorkload() {
+        // Arrange
+        WorkloadGenerator first = new WorkloadGenerator(spec(7L));
+        WorkloadGenerator second = new WorkloadGenerator(spec(7L));
+        WorkloadGenerator otherSeed = new WorkloadGenerator(spec(8L));
+
+        // Act
+        List<CartRequest> firstCarts = first.carts(3).limit(50).collect(Collectors.toList());
+        List<CartRequest> secondCarts = second.carts(3).limit(50).collect(Collectors.toList());
+
+        // Assert
+        assertEquals(first.product(123), second.product(123));
+        assertEquals(first.promotion(17), second.promotion(17));
+        assertNotEquals(first.productId(123), otherSeed.productId(123));
+        assertEquals(describe(firstCarts), describe(secondCarts));
+    }
+
+    @Test
+    void carts_ShouldFollowSkewedPopularityWithDistinctLines() {
+        // Arrange
+        WorkloadSpec spec = spec(42L);
+        spec.setMinCartLines(5);
+        spec.setMaxCartLines(5);
+        WorkloadGenerator generator = new WorkloadGenerator(spec);
+        String hottest = generator.productId(0).toString();
+
+        // Act
+        List<CartRequest> carts = generator.carts(0).limit(2_000).collect(Collectors.toList());
+
+        // Assert
+        long cartsWithHottest = carts.stream()
+                .filter(cart -> cart.getItems().stream().anyMatch(item -> item.getProductId().equals(hottest)))
+                .count();
+        assertTrue(cartsWithHottest > carts.size() / 4,
+                "Expected the top SKU in many carts but found it in " + cartsWithHottest);
+        for (CartRequest cart : carts) {
+            assertEquals(5, cart.getItems().size());
+            assertEquals(5, cart.getItems().stream().map(CartItemRequest::getProductId).distinct().count());
+        }
+    }
+
+    @Test
+    void zipfSampler_ShouldStayInRangeAndFavourLowRanks() {
+        // Arrange
+        ZipfSampler sampler = new ZipfSampler(1_000_000, 1.1);
+        SplittableRandom random = new SplittableRandom(1);
+
+        // Act
+        int top = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= 1_000_000);
+            if (rank <= 10) {
+                top++;
+            }
+        }
+
+        // Assert
+        assertTrue(top > 3_000, "Expected ranks 1-10 to dominate but got " + top);
+    }
+
+    @Test
+    void dataset_ShouldRoundTripThroughFile(@TempDir Path directory) throws Exception {
+        // Arrange
+        WorkloadGenerator generator = new WorkloadGenerator(spec(42L));
+        Path file = directory.resolve("workload.bin");
+        Collecting generated = new Collecting();
+
+        // Act
+        try (WorkloadDataset.Writer writer = WorkloadDataset.writer(file)) {
+            generator.generate(WorkloadSink.tee(generated, writer));
+        }
+        Collecting reloaded = new Collecting();
+        long rows = WorkloadDataset.read(file, reloaded);
+
+        // Assert
+        assertEquals(1_000 + 200, rows);
+        assertEquals(generated.products, reloaded.products);
+        assertEquals(generated.promotions, reloaded.promotions);
+        assertEquals(1_000, new HashSet<>(reloaded.products.stream().map(Product::getId).toList()).size());
+    }
+
+    private WorkloadSpec spec(long seed) {
+        WorkloadSpec spec = new WorkloadSpec();
+        spec.setSeed(seed);
+        spec.setProducts(1_000);
+        spec.setPromotions(200);
+        return spec;
+    }
+
+    private List<String> describe(List<CartRequest> carts) {
+        return carts.stream()
+                .map(cart -> cart.getCustomerSegment() + ":" + cart.getItems().stream()
+                        .map(item -> item.getProductId() + "x" + item.getQty())
+                        .collect(Collectors.joining(",")))
+                .collect(Collectors.toList());
+    }
+
+    private static class Collecting implements WorkloadSink {
+        private final List<Product> products = new ArrayList<>();
+        private final List<Promotion> promotions = new ArrayList<>();
+
+        @Override
+        public void acceptProduct(Product product) {
+            products.add(product);
+        }
+
+        @Override
+        public void acceptPromotion(Promotion promotion) {
+            promotions.add(promotion);
+        }
+    }
+}